@@ -0,0 +1,11 @@
+package com.task.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class ReactiveAppRunner {
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveAppRunner.class, args);
+    }
+}
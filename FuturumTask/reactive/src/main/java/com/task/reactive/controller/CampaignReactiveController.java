@@ -0,0 +1,60 @@
+package com.task.reactive.controller;
+
+import com.task.campaign.dto.CampaignFilterDto;
+import com.task.campaign.dto.CampaignRequestDto;
+import com.task.campaign.dto.CampaignResponseDto;
+import com.task.reactive.service.CampaignReactiveService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/campaigns")
+@CrossOrigin(origins = "http://localhost:5173")
+public class CampaignReactiveController {
+
+    private final CampaignReactiveService campaignService;
+
+    @PostMapping
+    public Mono<ResponseEntity<CampaignResponseDto>> createCampaign(@Valid @RequestBody CampaignRequestDto campaignRequestDto) {
+        log.info("Received request to create campaign: {}", campaignRequestDto.getCampaignName());
+        return campaignService.createCampaign(campaignRequestDto)
+                .map(createdCampaign -> new ResponseEntity<>(createdCampaign, HttpStatus.CREATED));
+    }
+
+    //Przy Accept: application/x-ndjson każda kampania jest wysyłana osobno, w tempie, w jakim klient odbiera dane
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<CampaignResponseDto> getAllCampaigns(CampaignFilterDto filter,
+                                                     @RequestParam(name = "after", required = false) Long after,
+                                                     @RequestParam(name = "limit", required = false) Integer limit) {
+        log.info("Received request to get campaigns after ID: {}", after);
+        return campaignService.getAllCampaigns(filter, after, limit);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<CampaignResponseDto>> getCampaignById(@PathVariable Long id) {
+        log.info("Received request to get campaign with ID: {}", id);
+        return campaignService.getCampaignById(id).map(ResponseEntity::ok);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<CampaignResponseDto>> updateCampaign(@PathVariable Long id,
+                                                                    @Valid @RequestBody CampaignRequestDto campaignRequestDto) {
+        log.info("Received request to update campaign with ID: {}: {}", id, campaignRequestDto.getCampaignName());
+        return campaignService.updateCampaign(id, campaignRequestDto).map(ResponseEntity::ok);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteCampaign(@PathVariable Long id) {
+        log.info("Received request to delete campaign with ID: {}", id);
+        return campaignService.deleteCampaign(id).then(Mono.just(ResponseEntity.noContent().build()));
+    }
+}
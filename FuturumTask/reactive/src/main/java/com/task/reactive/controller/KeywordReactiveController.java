@@ -0,0 +1,27 @@
+package com.task.reactive.controller;
+
+import com.task.reactive.service.KeywordReactiveService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Collections;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/keywords")
+@CrossOrigin(origins = "http://localhost:5173")
+public class KeywordReactiveController {
+
+    private final KeywordReactiveService keywordService;
+
+    @GetMapping("/suggestions")
+    public ResponseEntity<List<String>> getKeywordSuggestions(@RequestParam(name = "q", required = false) String query,
+                                                              @RequestParam(name = "limit", defaultValue = "" + KeywordReactiveService.DEFAULT_SUGGESTION_LIMIT) int limit) {
+        if (query == null || query.trim().length() < 2) {
+            return ResponseEntity.ok(Collections.emptyList());
+        }
+        return ResponseEntity.ok(keywordService.getTypeaheadSuggestions(query, limit));
+    }
+}
@@ -0,0 +1,28 @@
+package com.task.reactive.controller;
+
+import com.task.campaign.dto.SellerDto;
+import com.task.reactive.service.SellerReactiveService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/sellers")
+@CrossOrigin(origins = "http://localhost:5173")
+public class SellerReactiveController {
+
+    private final SellerReactiveService sellerService;
+
+    @GetMapping
+    public Flux<SellerDto> getAllSellers() {
+        return sellerService.getAllSellers();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<SellerDto>> getSellerById(@PathVariable Long id) {
+        return sellerService.getSellerById(id).map(ResponseEntity::ok);
+    }
+}
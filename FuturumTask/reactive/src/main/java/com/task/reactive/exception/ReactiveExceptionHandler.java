@@ -0,0 +1,27 @@
+package com.task.reactive.exception;
+
+import com.task.exception.dto.ErrorDetails;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.time.LocalDateTime;
+
+@Slf4j
+@RestControllerAdvice
+public class ReactiveExceptionHandler {
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorDetails> handleOptimisticLockingFailure(OptimisticLockingFailureException exception,
+                                                                       ServerWebExchange exchange) {
+        log.warn("Concurrent modification: {}", exception.getMessage());
+        ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.now(),
+                "Zasób został w międzyczasie zmodyfikowany, spróbuj ponownie.",
+                "uri=" + exchange.getRequest().getPath());
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+}
@@ -0,0 +1,185 @@
+package com.task.reactive.repository;
+
+import com.task.campaign.dto.CampaignFilterDto;
+import com.task.campaign.dto.CampaignRequestDto;
+import com.task.campaign.dto.CampaignResponseDto;
+import com.task.campaign.enums.CampaignStatus;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+@Repository
+@RequiredArgsConstructor
+public class CampaignReactiveRepository {
+
+    private static final String RESPONSE_DTO_SELECT = """
+            SELECT c.id, c.campaign_name, c.keywords, c.bid_amount, c.campaign_fund, c.spent_amount, c.status,
+                   c.town, c.radius, s.id AS seller_id, s.name AS seller_name, s.emerald_balance
+            FROM campaigns c JOIN sellers s ON s.id = c.seller_id
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<CampaignResponseDto> findResponseDtoById(Long id) {
+        return databaseClient.sql(RESPONSE_DTO_SELECT + "WHERE c.id = :id")
+                .bind("id", id)
+                .map(CampaignReactiveRepository::toResponseDto)
+                .one();
+    }
+
+    /// Kampanie spełniające filtr, rosnąco po id. Wiersze są pobierane z bazy w miarę zapotrzebowania subskrybenta.
+    public Flux<CampaignResponseDto> findFiltered(CampaignFilterDto filter, Long afterId, Integer limit) {
+        //Warunki tylko dla podanych parametrów - sterownik R2DBC wymaga typu przy wiązaniu nulli
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        StringBuilder sql = new StringBuilder(RESPONSE_DTO_SELECT).append("WHERE 1 = 1");
+        appendCondition(sql, parameters, "c.id > :afterId", "afterId", afterId);
+        appendCondition(sql, parameters, "c.status = :status", "status",
+                filter.getStatus() == null ? null : filter.getStatus().name());
+        appendCondition(sql, parameters, "c.town = :town", "town", filter.getTown());
+        appendCondition(sql, parameters, "s.id = :sellerId", "sellerId", filter.getSellerId());
+        appendCondition(sql, parameters, "c.bid_amount >= :minBid", "minBid", filter.getMinBid());
+        appendCondition(sql, parameters, "c.bid_amount <= :maxBid", "maxBid", filter.getMaxBid());
+        sql.append(" ORDER BY c.id");
+        if (limit != null) {
+            sql.append(" LIMIT :limit");
+            parameters.put("limit", limit);
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            spec = spec.bind(parameter.getKey(), parameter.getValue());
+        }
+        return spec.map(CampaignReactiveRepository::toResponseDto).all();
+    }
+
+    public Mono<CampaignRow> findById(Long id) {
+        return databaseClient.sql("SELECT id, keywords, campaign_fund, version, seller_id FROM campaigns WHERE id = :id")
+                .bind("id", id)
+                .map(row -> new CampaignRow(
+                        row.get("id", Long.class),
+                        row.get("keywords", String.class),
+                        row.get("campaign_fund", BigDecimal.class),
+                        row.get("version", Long.class),
+                        row.get("seller_id", Long.class)))
+                .one();
+    }
+
+    public Mono<Long> nextId() {
+        return databaseClient.sql("SELECT NEXT VALUE FOR campaigns_seq")
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    public Mono<Long> insert(Long id, CampaignRequestDto campaign) {
+        return bindCampaign(databaseClient.sql("""
+                        INSERT INTO campaigns (id, campaign_name, keywords, bid_amount, campaign_fund, status, town,
+                                               radius, version, seller_id)
+                        VALUES (:id, :campaignName, :keywords, :bidAmount, :campaignFund, :status, :town,
+                                :radius, 0, :sellerId)
+                        """), campaign)
+                .bind("id", id)
+                .bind("sellerId", campaign.getSellerId())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /// Zwraca 0, gdy kampanię zmienił w międzyczasie ktoś inny (wersja się nie zgadza).
+    public Mono<Long> update(Long id, long expectedVersion, CampaignRequestDto campaign) {
+        return bindCampaign(databaseClient.sql("""
+                        UPDATE campaigns
+                        SET campaign_name = :campaignName, keywords = :keywords, bid_amount = :bidAmount,
+                            campaign_fund = :campaignFund, status = :status, town = :town, radius = :radius,
+                            version = version + 1
+                        WHERE id = :id AND version = :version
+                        """), campaign)
+                .bind("id", id)
+                .bind("version", expectedVersion)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Void> replaceKeywords(Long id, Set<String> keywords) {
+        Mono<Long> deleted = databaseClient.sql("DELETE FROM campaign_keywords WHERE campaign_id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+        Flux<Long> inserted = Flux.fromIterable(keywords)
+                .concatMap(keyword -> databaseClient
+                        .sql("INSERT INTO campaign_keywords (campaign_id, keyword) VALUES (:id, :keyword)")
+                        .bind("id", id)
+                        .bind("keyword", keyword)
+                        .fetch()
+                        .rowsUpdated());
+        return deleted.thenMany(inserted).then();
+    }
+
+    /// Zwraca 0 i niczego nie usuwa, gdy kampanię zmienił lub usunął w międzyczasie ktoś inny (wersja się nie zgadza).
+    public Mono<Long> delete(Long id, long expectedVersion) {
+        //Słowa kluczowe (klucz obcy) trzeba usunąć przed kampanią, więc wersję sprawdza najpierw warunkowe podbicie -
+        //blokuje ono też wiersz do końca transakcji
+        return databaseClient.sql("UPDATE campaigns SET version = version + 1 WHERE id = :id AND version = :version")
+                .bind("id", id)
+                .bind("version", expectedVersion)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(claimed -> claimed == 0
+                        ? Mono.just(0L)
+                        : replaceKeywords(id, Set.of())
+                        .then(databaseClient.sql("DELETE FROM campaigns WHERE id = :id")
+                                .bind("id", id)
+                                .fetch()
+                                .rowsUpdated()));
+    }
+
+    public Flux<Map.Entry<String, Long>> countCampaignsPerKeyword() {
+        return databaseClient.sql("SELECT keyword, COUNT(*) AS campaigns FROM campaign_keywords GROUP BY keyword")
+                .map(row -> Map.entry(row.get("keyword", String.class), row.get("campaigns", Long.class)))
+                .all();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindCampaign(DatabaseClient.GenericExecuteSpec spec,
+                                                                  CampaignRequestDto campaign) {
+        spec = spec.bind("campaignName", campaign.getCampaignName())
+                .bind("keywords", campaign.getKeywords())
+                .bind("bidAmount", campaign.getBidAmount())
+                .bind("campaignFund", campaign.getCampaignFund())
+                .bind("status", campaign.getStatus().name())
+                .bind("radius", campaign.getRadius());
+        return campaign.getTown() == null ? spec.bindNull("town", String.class) : spec.bind("town", campaign.getTown());
+    }
+
+    private static void appendCondition(StringBuilder sql, Map<String, Object> parameters,
+                                        String condition, String name, Object value) {
+        if (value != null) {
+            sql.append(" AND ").append(condition);
+            parameters.put(name, value);
+        }
+    }
+
+    private static CampaignResponseDto toResponseDto(Readable row) {
+        return new CampaignResponseDto(
+                row.get("id", Long.class),
+                row.get("campaign_name", String.class),
+                row.get("keywords", String.class),
+                row.get("bid_amount", BigDecimal.class),
+                row.get("campaign_fund", BigDecimal.class),
+                row.get("spent_amount", BigDecimal.class),
+                CampaignStatus.valueOf(row.get("status", String.class)),
+                row.get("town", String.class),
+                row.get("radius", Integer.class),
+                row.get("seller_id", Long.class),
+                row.get("seller_name", String.class),
+                row.get("emerald_balance", BigDecimal.class)
+        );
+    }
+
+    public record CampaignRow(Long id, String keywords, BigDecimal campaignFund, Long version, Long sellerId) {
+    }
+}
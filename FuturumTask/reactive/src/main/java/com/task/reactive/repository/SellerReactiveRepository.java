@@ -0,0 +1,84 @@
+package com.task.reactive.repository;
+
+import com.task.campaign.dto.SellerDto;
+import com.task.campaign.enums.BalanceTransactionType;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+@Repository
+@RequiredArgsConstructor
+public class SellerReactiveRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public Flux<SellerDto> findAll() {
+        return databaseClient.sql("SELECT id, name, emerald_balance FROM sellers ORDER BY id")
+                .map(SellerReactiveRepository::toSellerDto)
+                .all();
+    }
+
+    public Mono<SellerDto> findById(Long id) {
+        return databaseClient.sql("SELECT id, name, emerald_balance FROM sellers WHERE id = :id")
+                .bind("id", id)
+                .map(SellerReactiveRepository::toSellerDto)
+                .one();
+    }
+
+    /// Obciąża konto tylko wtedy, gdy wystarcza środków. Zwraca 0, gdy saldo jest za niskie.
+    public Mono<Long> debitBalance(Long id, BigDecimal amount) {
+        return databaseClient.sql("""
+                        UPDATE sellers SET emerald_balance = emerald_balance - :amount
+                        WHERE id = :id AND emerald_balance >= :amount
+                        """)
+                .bind("id", id)
+                .bind("amount", amount)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> creditBalance(Long id, BigDecimal amount) {
+        return databaseClient.sql("UPDATE sellers SET emerald_balance = emerald_balance + :amount WHERE id = :id")
+                .bind("id", id)
+                .bind("amount", amount)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<BigDecimal> findBalance(Long id) {
+        return databaseClient.sql("SELECT emerald_balance FROM sellers WHERE id = :id")
+                .bind("id", id)
+                .map(row -> row.get("emerald_balance", BigDecimal.class))
+                .one();
+    }
+
+    public Mono<Long> insertTransaction(Long sellerId, Long campaignId, BalanceTransactionType type,
+                                        BigDecimal amount, BigDecimal balanceAfter) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("""
+                        INSERT INTO balance_transactions (seller_id, campaign_id, type, amount, balance_after, created_at)
+                        VALUES (:sellerId, :campaignId, :type, :amount, :balanceAfter, :createdAt)
+                        """)
+                .bind("sellerId", sellerId)
+                .bind("type", type.name())
+                .bind("amount", amount)
+                .bind("balanceAfter", balanceAfter)
+                .bind("createdAt", OffsetDateTime.ofInstant(Instant.now(), ZoneOffset.UTC));
+        spec = campaignId == null ? spec.bindNull("campaignId", Long.class) : spec.bind("campaignId", campaignId);
+        return spec.fetch().rowsUpdated();
+    }
+
+    private static SellerDto toSellerDto(Readable row) {
+        return new SellerDto(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("emerald_balance", BigDecimal.class));
+    }
+}
@@ -0,0 +1,49 @@
+package com.task.reactive.service;
+
+import com.task.campaign.dto.SellerDto;
+import com.task.campaign.enums.BalanceTransactionType;
+import com.task.exception.InsufficientFundsException;
+import com.task.reactive.repository.SellerReactiveRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/// Odpowiednik BalanceLedgerService: saldo zmienia pojedynczy warunkowy UPDATE, a każda zmiana trafia do
+/// balance_transactions. Musi być subskrybowany wewnątrz transakcji wywołującego.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceLedgerReactiveService {
+
+    private final SellerReactiveRepository sellerRepository;
+
+    public Mono<BigDecimal> debit(SellerDto seller, BigDecimal amount, Long campaignId, BalanceTransactionType type) {
+        return sellerRepository.debitBalance(seller.getId(), amount)
+                .flatMap(updated -> {
+                    if (updated == 0) {
+                        log.warn("Insufficient funds for seller ID: {}. Required: {}", seller.getId(), amount);
+                        return Mono.error(new InsufficientFundsException(
+                                "Niewystarczające środki na koncie Emerald sprzedawcy: " + seller.getName()));
+                    }
+                    return record(seller, amount.negate(), campaignId, type);
+                });
+    }
+
+    public Mono<BigDecimal> credit(SellerDto seller, BigDecimal amount, Long campaignId, BalanceTransactionType type) {
+        return sellerRepository.creditBalance(seller.getId(), amount)
+                .then(record(seller, amount, campaignId, type));
+    }
+
+    private Mono<BigDecimal> record(SellerDto seller, BigDecimal amount, Long campaignId, BalanceTransactionType type) {
+        //Wiersz sprzedawcy pozostaje zablokowany do końca transakcji, więc odczytane saldo jest dokładne
+        return sellerRepository.findBalance(seller.getId())
+                .flatMap(balanceAfter -> sellerRepository
+                        .insertTransaction(seller.getId(), campaignId, type, amount, balanceAfter)
+                        .doOnNext(inserted -> log.info("Seller ID: {} balance changed by {} ({}), new balance: {}",
+                                seller.getId(), amount, type, balanceAfter))
+                        .thenReturn(balanceAfter));
+    }
+}
@@ -0,0 +1,132 @@
+package com.task.reactive.service;
+
+import com.task.campaign.dto.CampaignFilterDto;
+import com.task.campaign.dto.CampaignRequestDto;
+import com.task.campaign.dto.CampaignResponseDto;
+import com.task.campaign.dto.SellerDto;
+import com.task.campaign.enums.BalanceTransactionType;
+import com.task.exception.ResourceNotFoundException;
+import com.task.reactive.repository.CampaignReactiveRepository;
+import com.task.reactive.repository.CampaignReactiveRepository.CampaignRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/// Odpowiednik CampaignService z tą samą semantyką salda: zmiana funduszu kampanii i wpis w historii konta
+/// zapisują się w jednej transakcji albo wcale. Indeks słów kluczowych jest aktualizowany dopiero po zatwierdzeniu.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CampaignReactiveService {
+
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private final CampaignReactiveRepository campaignRepository;
+    private final SellerReactiveService sellerService;
+    private final BalanceLedgerReactiveService balanceLedgerService;
+    private final KeywordReactiveService keywordService;
+    private final TransactionalOperator transactionalOperator;
+
+    public Mono<CampaignResponseDto> createCampaign(CampaignRequestDto campaignRequestDto) {
+        log.info("Attempting to create campaign for seller ID: {}", campaignRequestDto.getSellerId());
+        Mono<CampaignResponseDto> work = sellerService.getSellerById(campaignRequestDto.getSellerId())
+                .flatMap(seller -> campaignRepository.nextId()
+                        .flatMap(id -> campaignRepository.insert(id, campaignRequestDto)
+                                .then(campaignRepository.replaceKeywords(id,
+                                        KeywordReactiveService.tokenizeKeywords(campaignRequestDto.getKeywords())))
+                                .then(balanceLedgerService.debit(seller, campaignRequestDto.getCampaignFund(), id,
+                                        BalanceTransactionType.CAMPAIGN_CREATED))
+                                .then(campaignRepository.findResponseDtoById(id))));
+        return transactionalOperator.transactional(work)
+                .doOnNext(campaign -> {
+                    log.info("Campaign created successfully with ID: {}", campaign.getId());
+                    keywordService.onCampaignChanged(null, campaign.getKeywords());
+                });
+    }
+
+    /// Strumień kampanii spełniających filtr; bez limitu zwraca wszystkie, pobierając je z bazy w miarę odbioru.
+    public Flux<CampaignResponseDto> getAllCampaigns(CampaignFilterDto filter, Long afterId, Integer limit) {
+        Integer pageSize = limit == null ? null : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        log.info("Fetching campaigns after ID: {} (limit {})", afterId, pageSize);
+        return campaignRepository.findFiltered(filter, afterId, pageSize);
+    }
+
+    public Mono<CampaignResponseDto> getCampaignById(Long id) {
+        log.info("Fetching campaign with ID: {}", id);
+        return campaignRepository.findResponseDtoById(id)
+                .switchIfEmpty(Mono.error(() -> {
+                    log.warn("Campaign not found with ID: {}", id);
+                    return new ResourceNotFoundException("Campaign", "id", id);
+                }));
+    }
+
+    public Mono<CampaignResponseDto> updateCampaign(Long campaignId, CampaignRequestDto campaignRequestDto) {
+        log.info("Attempting to update campaign with ID: {}", campaignId);
+        Mono<ChangedCampaign> work = findExisting(campaignId)
+                .flatMap(existing -> sellerService.getSellerById(existing.sellerId())
+                        .flatMap(seller -> changeFund(seller, existing, campaignRequestDto.getCampaignFund()))
+                        .then(campaignRepository.update(campaignId, existing.version(), campaignRequestDto))
+                        .flatMap(updated -> updated == 0
+                                ? Mono.error(new OptimisticLockingFailureException(
+                                "Campaign with ID " + campaignId + " was modified concurrently"))
+                                : campaignRepository.replaceKeywords(campaignId,
+                                KeywordReactiveService.tokenizeKeywords(campaignRequestDto.getKeywords())))
+                        .then(campaignRepository.findResponseDtoById(campaignId))
+                        .map(campaign -> new ChangedCampaign(existing.keywords(), campaign)));
+        return transactionalOperator.transactional(work)
+                .doOnNext(changed -> {
+                    log.info("Campaign updated successfully with ID: {}", campaignId);
+                    keywordService.onCampaignChanged(changed.previousKeywords(), changed.campaign().getKeywords());
+                })
+                .map(ChangedCampaign::campaign);
+    }
+
+    public Mono<Void> deleteCampaign(Long campaignId) {
+        log.info("Attempting to delete campaign with ID: {}", campaignId);
+        Mono<CampaignRow> work = findExisting(campaignId)
+                .flatMap(existing -> campaignRepository.delete(campaignId, existing.version())
+                        .flatMap(deleted -> deleted == 0
+                                ? Mono.<SellerDto>error(new OptimisticLockingFailureException(
+                                "Campaign with ID " + campaignId + " was modified concurrently"))
+                                : sellerService.getSellerById(existing.sellerId()))
+                        .flatMap(seller -> balanceLedgerService.credit(seller, existing.campaignFund(), campaignId,
+                                BalanceTransactionType.CAMPAIGN_DELETED))
+                        .thenReturn(existing));
+        return transactionalOperator.transactional(work)
+                .doOnNext(deleted -> {
+                    log.info("Campaign deleted successfully with ID: {}", campaignId);
+                    keywordService.onCampaignChanged(deleted.keywords(), null);
+                })
+                .then();
+    }
+
+    private Mono<CampaignRow> findExisting(Long campaignId) {
+        return campaignRepository.findById(campaignId)
+                .switchIfEmpty(Mono.error(() -> {
+                    log.warn("Campaign not found with ID: {}", campaignId);
+                    return new ResourceNotFoundException("Campaign", "id", campaignId);
+                }));
+    }
+
+    private Mono<BigDecimal> changeFund(SellerDto seller, CampaignRow existing, BigDecimal newFund) {
+        BigDecimal oldFund = existing.campaignFund();
+        int fundChange = newFund.compareTo(oldFund);
+        if (fundChange > 0) {
+            return balanceLedgerService.debit(seller, newFund.subtract(oldFund), existing.id(),
+                    BalanceTransactionType.CAMPAIGN_FUND_INCREASED);
+        } else if (fundChange < 0) {
+            return balanceLedgerService.credit(seller, oldFund.subtract(newFund), existing.id(),
+                    BalanceTransactionType.CAMPAIGN_FUND_DECREASED);
+        }
+        return Mono.empty();
+    }
+
+    private record ChangedCampaign(String previousKeywords, CampaignResponseDto campaign) {
+    }
+}
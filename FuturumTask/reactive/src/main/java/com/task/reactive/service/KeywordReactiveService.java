@@ -0,0 +1,73 @@
+package com.task.reactive.service;
+
+import com.task.campaign.service.KeywordIndex;
+import com.task.campaign.service.PredefinedKeywords;
+import com.task.reactive.repository.CampaignReactiveRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+//Podpowiedzi liczone w pamięci (mikrosekundy), więc mogą być obsługiwane bezpośrednio na wątku pętli zdarzeń
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class KeywordReactiveService {
+    public static final int DEFAULT_SUGGESTION_LIMIT = 10;
+    public static final int MAX_SUGGESTION_LIMIT = 50;
+
+    private final CampaignReactiveRepository campaignRepository;
+    private final KeywordIndex keywordIndex = new KeywordIndex(PredefinedKeywords.ALL);
+
+    public List<String> getTypeaheadSuggestions(String query, int limit) {
+        if (query == null || query.trim().length() < 2) {
+            return new ArrayList<>();
+        }
+        return keywordIndex.suggest(query, Math.max(1, Math.min(limit, MAX_SUGGESTION_LIMIT)));
+    }
+
+    //Wywoływane na wątku main przy starcie, więc jednorazowe blokujące czekanie na wynik jest tu dopuszczalne
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadKeywordPopularity() {
+        List<Map.Entry<String, Long>> counts = campaignRepository.countCampaignsPerKeyword().collectList().block();
+        synchronized (this) {
+            for (Map.Entry<String, Long> count : counts) {
+                keywordIndex.adjustPopularity(count.getKey(), count.getValue().intValue());
+            }
+        }
+        log.info("Keyword index ready with {} keywords, {} of them used in campaigns", keywordIndex.size(), counts.size());
+    }
+
+    /// Wywoływane po zatwierdzeniu transakcji; previousKeywords jest null dla nowej kampanii, keywords - dla usuniętej.
+    public synchronized void onCampaignChanged(String previousKeywords, String keywords) {
+        for (String keyword : tokenizeKeywords(previousKeywords)) {
+            keywordIndex.adjustPopularity(keyword, -1);
+        }
+        for (String keyword : tokenizeKeywords(keywords)) {
+            keywordIndex.adjustPopularity(keyword, 1);
+        }
+    }
+
+    /// Te same reguły co Campaign.tokenizeKeywords w aplikacji blokującej.
+    static Set<String> tokenizeKeywords(String keywords) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (keywords == null) {
+            return tokens;
+        }
+        for (String keyword : keywords.split(",")) {
+            String token = keyword.trim().toLowerCase(Locale.ROOT);
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
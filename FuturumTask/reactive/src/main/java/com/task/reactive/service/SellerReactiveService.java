@@ -0,0 +1,30 @@
+package com.task.reactive.service;
+
+import com.task.campaign.dto.SellerDto;
+import com.task.exception.ResourceNotFoundException;
+import com.task.reactive.repository.SellerReactiveRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SellerReactiveService {
+
+    private final SellerReactiveRepository sellerRepository;
+
+    public Flux<SellerDto> getAllSellers() {
+        return sellerRepository.findAll();
+    }
+
+    public Mono<SellerDto> getSellerById(Long id) {
+        return sellerRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> {
+                    log.warn("Seller not found with ID: {}", id);
+                    return new ResourceNotFoundException("Seller", "id", id);
+                }));
+    }
+}
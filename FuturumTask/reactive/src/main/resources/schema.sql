@@ -0,0 +1,43 @@
+--Ten sam układ tabel, który Hibernate tworzy dla aplikacji blokującej
+CREATE SEQUENCE campaigns_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE sellers
+(
+    id              BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name            VARCHAR(255)   NOT NULL UNIQUE,
+    emerald_balance NUMERIC(19, 2) NOT NULL
+);
+
+CREATE TABLE campaigns
+(
+    id            BIGINT PRIMARY KEY,
+    campaign_name VARCHAR(255)   NOT NULL,
+    keywords      VARCHAR(255)   NOT NULL,
+    bid_amount    NUMERIC(38, 2) NOT NULL,
+    campaign_fund NUMERIC(38, 2) NOT NULL,
+    spent_amount  NUMERIC(38, 2) NOT NULL DEFAULT 0,
+    status        VARCHAR(255)   NOT NULL,
+    town          VARCHAR(255),
+    radius        INTEGER        NOT NULL,
+    version       BIGINT         NOT NULL,
+    seller_id     BIGINT         NOT NULL REFERENCES sellers (id)
+);
+
+CREATE TABLE campaign_keywords
+(
+    campaign_id BIGINT       NOT NULL REFERENCES campaigns (id),
+    keyword     VARCHAR(255) NOT NULL
+);
+CREATE INDEX idx_campaign_keywords_keyword ON campaign_keywords (keyword, campaign_id);
+
+CREATE TABLE balance_transactions
+(
+    id            BIGINT AUTO_INCREMENT PRIMARY KEY,
+    seller_id     BIGINT         NOT NULL,
+    campaign_id   BIGINT,
+    type          VARCHAR(255)   NOT NULL,
+    amount        NUMERIC(19, 2) NOT NULL,
+    balance_after NUMERIC(19, 2) NOT NULL,
+    created_at    TIMESTAMP WITH TIME ZONE NOT NULL
+);
+CREATE INDEX idx_balance_transactions_seller ON balance_transactions (seller_id, id);
@@ -0,0 +1,59 @@
+package com.task.ads.service;
+
+import com.task.ads.dto.AdMatchDto;
+import com.task.ads.enums.AdChargeModel;
+import com.task.benchmark.BenchmarkData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/// Opóźnienie AdMatchingEngine.match przy 10 tys. i 1 mln aktywnych kampanii. Model CLICK, bo w modelu
+/// IMPRESSION każde dopasowanie zużywa budżet i wynik zależałby od czasu trwania pomiaru.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AdMatchingEngineBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"10000", "1000000"})
+    private int campaignCount;
+
+    private AdMatchingEngine engine;
+    private String[] keywords;
+    private String[] towns;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<String> dictionary = BenchmarkData.dictionary(1000);
+        engine = new AdMatchingEngine(
+                BenchmarkData.streamingRepository(BenchmarkData.activeCampaigns(campaignCount, dictionary)),
+                null, null, null, BenchmarkData.singleShard(), AdChargeModel.CLICK, false, Duration.ofMinutes(1), Duration.ofHours(24));
+        engine.loadActiveCampaigns();
+
+        Random random = new Random(42);
+        keywords = new String[QUERIES];
+        towns = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            keywords[i] = dictionary.get(random.nextInt(dictionary.size()));
+            towns[i] = BenchmarkData.TOWNS.get(random.nextInt(BenchmarkData.TOWNS.size()));
+        }
+    }
+
+    @Benchmark
+    public List<AdMatchDto> match() {
+        int query = next++ & (QUERIES - 1);
+        return engine.match(keywords[query], towns[query], 3);
+    }
+}
@@ -0,0 +1,121 @@
+package com.task.benchmark;
+
+import com.task.campaign.dto.CampaignResponseDto;
+import com.task.campaign.entity.Campaign;
+import com.task.campaign.entity.Seller;
+import com.task.campaign.enums.CampaignStatus;
+import com.task.campaign.repository.CampaignRepository;
+import com.task.campaign.service.PredefinedKeywords;
+import com.task.config.sharding.ShardRouter;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/// Powtarzalne (stałe ziarno) dane wejściowe dla benchmarków.
+public final class BenchmarkData {
+
+    public static final List<String> TOWNS = List.of("Warszawa", "Kraków", "Łódź", "Wrocław", "Poznań",
+            "Gdańsk", "Szczecin", "Bydgoszcz", "Lublin", "Katowice");
+
+    private static final long SEED = 42;
+    private static final String[] SYLLABLES = {"ka", "lo", "mi", "ra", "te", "no", "pu", "si", "ver", "tab",
+            "lap", "top", "gra", "fon", "ele", "kom", "bud", "dom", "sport", "auto"};
+
+    private BenchmarkData() {
+    }
+
+    /// Słownik o zadanej wielkości: słowa predefiniowane uzupełnione sztucznymi, zbudowanymi z sylab.
+    public static List<String> dictionary(int size) {
+        List<String> words = new ArrayList<>(size);
+        words.addAll(PredefinedKeywords.ALL.subList(0, Math.min(size, PredefinedKeywords.ALL.size())));
+        Random random = new Random(SEED);
+        while (words.size() < size) {
+            StringBuilder word = new StringBuilder();
+            int syllables = 2 + random.nextInt(3);
+            for (int i = 0; i < syllables; i++) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            word.append(words.size());
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    /// Aktywne kampanie z 1-3 słowami kluczowymi ze słownika i miastem z listy predefiniowanych (co dziesiąta bez miasta).
+    public static List<CampaignResponseDto> activeCampaigns(int count, List<String> dictionary) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<CampaignResponseDto> campaigns = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long id = i + 1;
+            int keywordCount = 1 + random.nextInt(3);
+            StringBuilder keywords = new StringBuilder();
+            for (int k = 0; k < keywordCount; k++) {
+                if (k > 0) {
+                    keywords.append(',');
+                }
+                keywords.append(dictionary.get(random.nextInt(dictionary.size())));
+            }
+            campaigns.add(new CampaignResponseDto(
+                    id,
+                    "Campaign " + id,
+                    keywords.toString(),
+                    BigDecimal.valueOf(1 + random.nextInt(1000), 2),
+                    BigDecimal.valueOf(100_000 + random.nextInt(1_000_000), 2),
+                    BigDecimal.ZERO,
+                    CampaignStatus.ON,
+                    i % 10 == 0 ? null : TOWNS.get(random.nextInt(TOWNS.size())),
+                    1 + random.nextInt(300),
+                    1L + random.nextInt(3),
+                    "seller",
+                    BigDecimal.valueOf(1_000_000, 2)));
+        }
+        return campaigns;
+    }
+
+    /// Encje z sprzedawcami, tak jak zwraca je Hibernate dla podanych kampanii.
+    public static List<Campaign> entities(List<CampaignResponseDto> source) {
+        List<Seller> sellers = List.of(
+                new Seller(1L, "x-kom", new BigDecimal("15000.00")),
+                new Seller(2L, "morele.net", new BigDecimal("10000.00")),
+                new Seller(3L, "krsystem", new BigDecimal("12500.00")));
+        List<Campaign> campaigns = new ArrayList<>(source.size());
+        for (CampaignResponseDto dto : source) {
+            Campaign campaign = new Campaign();
+            campaign.setId(dto.getId());
+            campaign.setCampaignName(dto.getCampaignName());
+            campaign.setKeywords(dto.getKeywords());
+            campaign.setBidAmount(dto.getBidAmount());
+            campaign.setCampaignFund(dto.getCampaignFund());
+            campaign.setStatus(dto.getStatus());
+            campaign.setTown(dto.getTown());
+            campaign.setRadius(dto.getRadius());
+            campaign.setVersion(0L);
+            campaign.setSeller(sellers.get((int) (dto.getSellerId() - 1)));
+            campaigns.add(campaign);
+        }
+        return campaigns;
+    }
+
+    /// Router bez shardów: każdą operację wykonuje od razu w bieżącym wątku, bez menedżera transakcji.
+    public static ShardRouter singleShard() {
+        return new ShardRouter(null, List.of());
+    }
+
+    /// Repozytorium, którego streamFiltered zwraca podane kampanie - wystarcza do załadowania indeksów
+    /// w pamięci bez bazy danych. Pozostałe metody nie są obsługiwane.
+    public static CampaignRepository streamingRepository(List<CampaignResponseDto> campaigns) {
+        return (CampaignRepository) Proxy.newProxyInstance(
+                CampaignRepository.class.getClassLoader(),
+                new Class<?>[]{CampaignRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("streamFiltered")) {
+                        return campaigns.stream();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
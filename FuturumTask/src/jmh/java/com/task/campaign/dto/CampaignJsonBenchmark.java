@@ -0,0 +1,41 @@
+package com.task.campaign.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.task.benchmark.BenchmarkData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/// Serializacja list CampaignResponseDto do JSON-a ObjectMapperem skonfigurowanym jak w Spring Boot.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CampaignJsonBenchmark {
+
+    @Param({"100", "10000"})
+    private int campaignCount;
+
+    private List<CampaignResponseDto> campaigns;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setUp() {
+        campaigns = BenchmarkData.activeCampaigns(campaignCount, BenchmarkData.dictionary(1000));
+        writer = Jackson2ObjectMapperBuilder.json().build().writerFor(List.class);
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws JsonProcessingException {
+        return writer.writeValueAsBytes(campaigns);
+    }
+}
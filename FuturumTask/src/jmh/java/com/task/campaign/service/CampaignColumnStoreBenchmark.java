@@ -0,0 +1,106 @@
+package com.task.campaign.service;
+
+import com.task.benchmark.BenchmarkData;
+import com.task.campaign.dto.CampaignResponseDto;
+import com.task.campaign.entity.Campaign;
+import com.task.campaign.enums.CampaignStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/// Strona aktywnych kampanii ze słowem kluczowym (opcjonalnie w mieście): CampaignColumnStore kontra ta sama
+/// selekcja na encjach, jakie materializuje Hibernate, z mapowaniem na DTO. Rozmiar na stercie w przeliczeniu
+/// na kampanię (encje z JOL, kolumny z footprintBytes) jest wypisywany przy przygotowaniu danych.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CampaignColumnStoreBenchmark {
+
+    private static final int QUERIES = 1024;
+    private static final int PAGE_SIZE = 50;
+    private static final int FOOTPRINT_SAMPLE = 10_000;
+
+    @Param({"10000", "1000000"})
+    private int campaignCount;
+
+    private CampaignColumnStore store;
+    private List<Campaign> entities;
+    private final long[] pageIds = new long[PAGE_SIZE + 1];
+    private String[] keywords;
+    private String[] towns;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<String> dictionary = BenchmarkData.dictionary(1000);
+        List<CampaignResponseDto> campaigns = BenchmarkData.activeCampaigns(campaignCount, dictionary);
+        store = new CampaignColumnStore(BenchmarkData.streamingRepository(campaigns), BenchmarkData.singleShard());
+        store.loadActiveCampaigns();
+        entities = BenchmarkData.entities(campaigns);
+
+        int sample = Math.min(FOOTPRINT_SAMPLE, campaignCount);
+        long entityBytes = GraphLayout.parseInstance(new ArrayList<>(entities.subList(0, sample))).totalSize();
+        System.out.printf("Heap per campaign: entities %d B, column store %d B%n",
+                entityBytes / sample, store.footprintBytes() / campaignCount);
+
+        Random random = new Random(42);
+        keywords = new String[QUERIES];
+        towns = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            keywords[i] = dictionary.get(random.nextInt(dictionary.size()));
+            towns[i] = BenchmarkData.TOWNS.get(random.nextInt(BenchmarkData.TOWNS.size())).toLowerCase(Locale.ROOT);
+        }
+    }
+
+    @Benchmark
+    public int columnStoreKeywordPage() {
+        int query = next++ & (QUERIES - 1);
+        return store.findActive(keywords[query], null, 0, pageIds);
+    }
+
+    @Benchmark
+    public List<CampaignResponseDto> entityKeywordPage() {
+        int query = next++ & (QUERIES - 1);
+        return entityPage(keywords[query], null);
+    }
+
+    @Benchmark
+    public int columnStoreKeywordTownPage() {
+        int query = next++ & (QUERIES - 1);
+        return store.findActive(keywords[query], towns[query], 0, pageIds);
+    }
+
+    @Benchmark
+    public List<CampaignResponseDto> entityKeywordTownPage() {
+        int query = next++ & (QUERIES - 1);
+        return entityPage(keywords[query], towns[query]);
+    }
+
+    //Encje są posortowane po id, więc pierwsze trafienia to strona - jak ORDER BY id z LIMIT w bazie
+    private List<CampaignResponseDto> entityPage(String keyword, String town) {
+        List<CampaignResponseDto> page = new ArrayList<>(PAGE_SIZE + 1);
+        for (Campaign campaign : entities) {
+            if (campaign.getStatus() == CampaignStatus.ON
+                    && (town == null || town.equalsIgnoreCase(campaign.getTown()))
+                    && campaign.getKeywordSet().contains(keyword)) {
+                page.add(CampaignService.mapToCampaignResponseDto(campaign));
+                if (page.size() > PAGE_SIZE) {
+                    break;
+                }
+            }
+        }
+        return page;
+    }
+}
@@ -0,0 +1,55 @@
+package com.task.campaign.service;
+
+import com.task.benchmark.BenchmarkData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/// CampaignGeoIndex.findCovering dla losowych punktów w Polsce przy 10 tys. i 1 mln aktywnych kampanii.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CampaignGeoIndexBenchmark {
+
+    private static final int POINTS = 1024;
+
+    @Param({"10000", "1000000"})
+    private int campaignCount;
+
+    private CampaignGeoIndex geoIndex;
+    private double[] latitudes;
+    private double[] longitudes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        geoIndex = new CampaignGeoIndex(
+                BenchmarkData.streamingRepository(
+                        BenchmarkData.activeCampaigns(campaignCount, BenchmarkData.dictionary(1000))),
+                new TownService(),
+                BenchmarkData.singleShard());
+        geoIndex.loadActiveCampaigns();
+
+        Random random = new Random(42);
+        latitudes = new double[POINTS];
+        longitudes = new double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            latitudes[i] = 49.0 + random.nextDouble() * 5.8;
+            longitudes[i] = 14.1 + random.nextDouble() * 10.0;
+        }
+    }
+
+    @Benchmark
+    public long[] findCovering() {
+        int point = next++ & (POINTS - 1);
+        return geoIndex.findCovering(latitudes[point], longitudes[point], CampaignService.MAX_PAGE_SIZE);
+    }
+}
@@ -0,0 +1,43 @@
+package com.task.campaign.service;
+
+import com.task.benchmark.BenchmarkData;
+import com.task.campaign.dto.CampaignResponseDto;
+import com.task.campaign.entity.Campaign;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/// Mapowanie encji na CampaignResponseDto dla całych list, tak jak przy stronicowaniu i operacjach zbiorczych.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CampaignMappingBenchmark {
+
+    @Param({"100", "10000"})
+    private int campaignCount;
+
+    private List<Campaign> campaigns;
+
+    @Setup
+    public void setUp() {
+        campaigns = BenchmarkData.entities(BenchmarkData.activeCampaigns(campaignCount, BenchmarkData.dictionary(1000)));
+    }
+
+    @Benchmark
+    public List<CampaignResponseDto> mapList() {
+        List<CampaignResponseDto> result = new ArrayList<>(campaigns.size());
+        for (Campaign campaign : campaigns) {
+            result.add(CampaignService.mapToCampaignResponseDto(campaign));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,76 @@
+package com.task.campaign.service;
+
+import com.task.AppRunner;
+import com.task.campaign.dto.CampaignFilterDto;
+import com.task.campaign.dto.CampaignPageDto;
+import com.task.campaign.dto.CampaignRequestDto;
+import com.task.campaign.dto.CampaignResponseDto;
+import com.task.campaign.enums.CampaignStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/// Pełne wywołania CampaignService (transakcja, Hibernate, wbudowane H2, zdarzenia po commicie) w kontekście
+/// Springa bez warstwy HTTP.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CampaignServiceRoundTripBenchmark {
+
+    private static final int SEEDED_CAMPAIGNS = 1000;
+    private static final int PAGE_SIZE = 100;
+    //Najmniejszy dozwolony fundusz, żeby saldo sprzedawcy z data.sql starczyło na cały pomiar
+    private static final BigDecimal CAMPAIGN_FUND = new BigDecimal("0.01");
+
+    private ConfigurableApplicationContext context;
+    private CampaignService campaignService;
+    private CampaignFilterDto noFilter;
+    private long created;
+
+    @Setup
+    public void setUp() {
+        context = SpringApplication.run(AppRunner.class,
+                "--spring.main.web-application-type=none",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN");
+        campaignService = context.getBean(CampaignService.class);
+        noFilter = new CampaignFilterDto();
+        for (int i = 0; i < SEEDED_CAMPAIGNS; i++) {
+            createCampaign();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CampaignResponseDto createCampaign() {
+        long number = ++created;
+        return campaignService.createCampaign(new CampaignRequestDto(
+                "Benchmark " + number,
+                "laptops,sale",
+                new BigDecimal("1.50"),
+                CAMPAIGN_FUND,
+                CampaignStatus.ON,
+                "Kraków",
+                10 + (int) (number % 90),
+                1L + number % 3));
+    }
+
+    @Benchmark
+    public CampaignPageDto getAllCampaigns() {
+        return campaignService.getAllCampaigns(noFilter, null, PAGE_SIZE);
+    }
+}
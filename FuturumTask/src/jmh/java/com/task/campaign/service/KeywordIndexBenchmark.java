@@ -0,0 +1,48 @@
+package com.task.campaign.service;
+
+import com.task.benchmark.BenchmarkData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/// KeywordService.getTypeaheadSuggestions sprowadza się do KeywordIndex.suggest na stałym słowniku, dlatego
+/// mierzymy indeks bezpośrednio - przy słownikach różnej wielkości. "lap" i "ka" trafiają w zakres prefiksu,
+/// "sport" ma mało dopasowań prefiksowych i schodzi do wyszukiwania trigramowego.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KeywordIndexBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int dictionarySize;
+
+    @Param({"ka", "lap", "sport"})
+    private String query;
+
+    private KeywordIndex index;
+
+    @Setup
+    public void setUp() {
+        List<String> dictionary = BenchmarkData.dictionary(dictionarySize);
+        index = new KeywordIndex(dictionary);
+        //Co dziesiąte słowo używane w kampaniach, żeby ranking popularności nie był trywialny
+        Random random = new Random(42);
+        for (int i = 0; i < dictionarySize / 10; i++) {
+            index.adjustPopularity(dictionary.get(random.nextInt(dictionarySize)), 1 + random.nextInt(100));
+        }
+    }
+
+    @Benchmark
+    public List<String> suggest() {
+        return index.suggest(query, KeywordService.DEFAULT_SUGGESTION_LIMIT);
+    }
+}
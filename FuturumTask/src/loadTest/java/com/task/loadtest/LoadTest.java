@@ -0,0 +1,226 @@
+package com.task.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/// Zamknięta pętla obciążenia dla działającej instancji: każdy z N klientów wysyła kolejne żądanie dopiero po
+/// odebraniu odpowiedzi na poprzednie. Wypisuje przepustowość i p50/p99 jako jedną linię JSON.
+///
+/// Argumenty (--nazwa=wartość): base-url, scenario (create, get albo events), concurrency, duration i warmup
+/// w sekundach, seed - liczba kampanii tworzonych przed scenariuszami get i events (żądania losują spośród nich),
+/// batch - liczba zdarzeń w jednym żądaniu scenariusza events.
+public final class LoadTest {
+
+    private static final int SEED_CHUNK_SIZE = 5000;
+    private static final Pattern CREATED_ID = Pattern.compile("\"campaignId\":(\\d+),\"status\":\"CREATED\"");
+    private static final String[] TOWNS = {"Warszawa", "Kraków", "Gdańsk", "Poznań", ""};
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = parseOptions(args);
+        String baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        String scenarioName = options.getOrDefault("scenario", "create");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "64"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "5")));
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        int batch = scenarioName.equals("events") ? Integer.parseInt(options.getOrDefault("batch", "1000")) : 1;
+        long[] campaignIds = scenarioName.equals("create")
+                ? new long[0]
+                : seedCampaigns(client, baseUrl, Integer.parseInt(options.getOrDefault("seed", "1000")));
+        LongFunction<HttpRequest> scenario = scenario(scenarioName, baseUrl, campaignIds, batch);
+
+        run(client, scenario, concurrency, warmup, null);
+        Result result = new Result(concurrency);
+        run(client, scenario, concurrency, duration, result);
+        System.out.println(result.toJson(scenarioName, duration, batch));
+    }
+
+    static LongFunction<HttpRequest> scenario(String name, String baseUrl, long[] campaignIds, int batch) {
+        return switch (name) {
+            case "get" -> sequence -> HttpRequest.newBuilder(
+                            URI.create(baseUrl + "/api/campaigns/" + campaignIds[(int) (sequence % campaignIds.length)]))
+                    .GET()
+                    .build();
+            case "create" -> sequence -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/campaigns"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(campaignJson(sequence)))
+                    .build();
+            case "events" -> sequence -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/ads/events"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(eventsJson(sequence, campaignIds, batch)))
+                    .build();
+            default -> throw new IllegalArgumentException("Unknown scenario: " + name);
+        };
+    }
+
+    //Minimalny fundusz, żeby salda sprzedawców z data.sql wystarczyły na długi test
+    static String campaignJson(long sequence) {
+        return String.format(Locale.ROOT,
+                "{\"campaignName\":\"load-%d\",\"keywords\":\"laptops,sale\",\"bidAmount\":0.01,"
+                        + "\"campaignFund\":0.01,\"status\":\"ON\",\"town\":\"Kraków\",\"radius\":10,\"sellerId\":%d}",
+                sequence, sequence % 3 + 1);
+    }
+
+    //Co dziesiąte zdarzenie to kliknięcie
+    static String eventsJson(long sequence, long[] campaignIds, int batch) {
+        StringBuilder body = new StringBuilder(batch * 80).append("{\"events\":[");
+        for (int i = 0; i < batch; i++) {
+            long n = sequence * batch + i;
+            body.append(i == 0 ? "" : ",")
+                    .append("{\"type\":\"").append(n % 10 == 0 ? "CLICK" : "IMPRESSION")
+                    .append("\",\"campaignId\":").append(campaignIds[(int) (n % campaignIds.length)])
+                    .append(",\"town\":\"").append(TOWNS[(int) (n % TOWNS.length)])
+                    .append("\",\"cost\":0.01}");
+        }
+        return body.append("]}").toString();
+    }
+
+    //Tworzy kampanie przez endpoint bulk i zwraca ich id
+    static long[] seedCampaigns(HttpClient client, String baseUrl, int count) throws InterruptedException {
+        long[] ids = new long[count];
+        int created = 0;
+        while (created < count) {
+            int chunk = Math.min(SEED_CHUNK_SIZE, count - created);
+            StringBuilder body = new StringBuilder("{\"sellerId\":1,\"create\":[");
+            for (int i = 0; i < chunk; i++) {
+                body.append(i == 0 ? "" : ",").append(campaignJson(3L * (created + i)));
+            }
+            body.append("]}");
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/campaigns/bulk"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                    .build();
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                //Limit zapisów sprzedawcy - czekamy, ile każe serwer, i ponawiamy tę samą porcję
+                if (response.statusCode() == 429) {
+                    Thread.sleep(1000L * response.headers().firstValueAsLong("Retry-After").orElse(1));
+                    continue;
+                }
+                Matcher matcher = CREATED_ID.matcher(response.body());
+                int before = created;
+                while (matcher.find()) {
+                    ids[created++] = Long.parseLong(matcher.group(1));
+                }
+                if (created == before) {
+                    throw new IllegalStateException("Seeding campaigns failed");
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Seeding campaigns failed", e);
+            }
+        }
+        return ids;
+    }
+
+    private static void run(HttpClient client, LongFunction<HttpRequest> scenario, int concurrency,
+                            Duration duration, Result result) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong sequence = new AtomicLong();
+        CountDownLatch finished = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            sendNext(client, scenario, sequence, deadline, result, i, finished);
+        }
+        finished.await();
+    }
+
+    private static void sendNext(HttpClient client, LongFunction<HttpRequest> scenario, AtomicLong sequence,
+                                 long deadline, Result result, int clientIndex, CountDownLatch finished) {
+        if (System.nanoTime() >= deadline) {
+            finished.countDown();
+            return;
+        }
+        long start = System.nanoTime();
+        client.sendAsync(scenario.apply(sequence.incrementAndGet()), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    if (result != null) {
+                        boolean ok = error == null && response.statusCode() < 400;
+                        result.record(clientIndex, System.nanoTime() - start, ok);
+                    }
+                    //429 z limitu zapisów - klient, jak każdy poprawny, czeka przed kolejnym żądaniem tyle, ile każe serwer
+                    if (error == null && response.statusCode() == 429) {
+                        long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1);
+                        CompletableFuture.delayedExecutor(retryAfter, TimeUnit.SECONDS).execute(
+                                () -> sendNext(client, scenario, sequence, deadline, result, clientIndex, finished));
+                        return;
+                    }
+                    sendNext(client, scenario, sequence, deadline, result, clientIndex, finished);
+                });
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    //Każdy klient pisze tylko do własnej tablicy, więc nagrywanie nie wymaga synchronizacji
+    static final class Result {
+        private final long[][] latencies;
+        private final int[] counts;
+        private final AtomicLong errors = new AtomicLong();
+
+        Result(int concurrency) {
+            latencies = new long[concurrency][1024];
+            counts = new int[concurrency];
+        }
+
+        void record(int clientIndex, long latencyNanos, boolean ok) {
+            if (!ok) {
+                errors.incrementAndGet();
+            }
+            if (counts[clientIndex] == latencies[clientIndex].length) {
+                latencies[clientIndex] = Arrays.copyOf(latencies[clientIndex], counts[clientIndex] * 2);
+            }
+            latencies[clientIndex][counts[clientIndex]++] = latencyNanos;
+        }
+
+        String toJson(String scenario, Duration duration, int itemsPerRequest) {
+            long[] all = new long[Arrays.stream(counts).sum()];
+            int offset = 0;
+            for (int i = 0; i < counts.length; i++) {
+                System.arraycopy(latencies[i], 0, all, offset, counts[i]);
+                offset += counts[i];
+            }
+            Arrays.sort(all);
+            return String.format(Locale.ROOT,
+                    "{\"scenario\":\"%s\",\"concurrency\":%d,\"requests\":%d,\"errors\":%d,"
+                            + "\"requestsPerSecond\":%.1f,\"itemsPerSecond\":%.1f,\"p50Ms\":%.2f,\"p99Ms\":%.2f}",
+                    scenario, counts.length, all.length, errors.get(),
+                    all.length / (double) duration.toSeconds(),
+                    (all.length - errors.get()) * (double) itemsPerRequest / duration.toSeconds(),
+                    percentile(all, 0.50), percentile(all, 0.99));
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
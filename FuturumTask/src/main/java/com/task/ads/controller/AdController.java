@@ -0,0 +1,34 @@
+package com.task.ads.controller;
+
+import com.task.ads.dto.AdMatchDto;
+import com.task.ads.dto.AdMatchRequestDto;
+import com.task.ads.service.AdMatchingEngine;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/ads")
+@CrossOrigin(origins = "http://localhost:5173")
+public class AdController {
+
+    private final AdMatchingEngine adMatchingEngine;
+
+    @PostMapping("/match")
+    public ResponseEntity<List<AdMatchDto>> matchAds(@Valid @RequestBody AdMatchRequestDto request) {
+        return ResponseEntity.ok(adMatchingEngine.match(request.getKeyword(), request.getTown(), request.getSlots()));
+    }
+
+    @PostMapping("/{campaignId}/clicks")
+    public ResponseEntity<Void> recordClick(@PathVariable Long campaignId) {
+        if (!adMatchingEngine.recordClick(campaignId)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
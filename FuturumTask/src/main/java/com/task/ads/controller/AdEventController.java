@@ -0,0 +1,33 @@
+package com.task.ads.controller;
+
+import com.task.ads.dto.AdEventBatchDto;
+import com.task.ads.dto.AdEventBatchResultDto;
+import com.task.ads.service.AdEventIngestionService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/ads/events")
+@CrossOrigin(origins = "http://localhost:5173")
+public class AdEventController {
+
+    private final AdEventIngestionService adEventIngestionService;
+
+    //202 - zdarzenia są w kolejce, w statystykach pojawią się po najbliższym zapisie agregatów;
+    //429 - kolejka pełna, klient ponawia zdarzenia od indeksu accepted
+    @PostMapping
+    public ResponseEntity<AdEventBatchResultDto> ingestEvents(@Valid @RequestBody AdEventBatchDto batch) {
+        AdEventBatchResultDto result = adEventIngestionService.ingest(batch.getEvents());
+        if (result.getDropped() > 0) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(result);
+        }
+        return ResponseEntity.accepted().body(result);
+    }
+}
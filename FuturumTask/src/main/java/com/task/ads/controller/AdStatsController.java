@@ -0,0 +1,49 @@
+package com.task.ads.controller;
+
+import com.task.ads.dto.AdStatsPointDto;
+import com.task.ads.dto.CampaignStatsDto;
+import com.task.ads.dto.SellerStatsDto;
+import com.task.ads.dto.TownStatsDto;
+import com.task.ads.service.AdStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/stats")
+@CrossOrigin(origins = "http://localhost:5173")
+public class AdStatsController {
+
+    private final AdStatsService adStatsService;
+
+    @GetMapping("/campaigns/{id}")
+    public ResponseEntity<List<AdStatsPointDto>> getCampaignSeries(@PathVariable Long id,
+                                                                   @RequestParam(name = "from", required = false) Instant from,
+                                                                   @RequestParam(name = "to", required = false) Instant to) {
+        return ResponseEntity.ok(adStatsService.getCampaignSeries(id, from, to));
+    }
+
+    @GetMapping("/sellers")
+    public ResponseEntity<List<SellerStatsDto>> getSellerTotals(@RequestParam(name = "from", required = false) Instant from,
+                                                                @RequestParam(name = "to", required = false) Instant to) {
+        return ResponseEntity.ok(adStatsService.getSellerTotals(from, to));
+    }
+
+    @GetMapping("/sellers/{id}/campaigns")
+    public ResponseEntity<List<CampaignStatsDto>> getSellerCampaignTotals(@PathVariable Long id,
+                                                                          @RequestParam(name = "from", required = false) Instant from,
+                                                                          @RequestParam(name = "to", required = false) Instant to) {
+        return ResponseEntity.ok(adStatsService.getSellerCampaignTotals(id, from, to));
+    }
+
+    @GetMapping("/towns")
+    public ResponseEntity<List<TownStatsDto>> getTownTotals(@RequestParam(name = "sellerId", required = false) Long sellerId,
+                                                            @RequestParam(name = "from", required = false) Instant from,
+                                                            @RequestParam(name = "to", required = false) Instant to) {
+        return ResponseEntity.ok(adStatsService.getTownTotals(sellerId, from, to));
+    }
+}
@@ -0,0 +1,21 @@
+package com.task.ads.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdEventBatchDto {
+
+    @NotNull(message = "Events are mandatory")
+    @Size(max = 10000, message = "At most 10000 events per batch")
+    private List<@Valid @NotNull AdEventDto> events = new ArrayList<>();
+}
@@ -0,0 +1,14 @@
+package com.task.ads.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdEventBatchResultDto {
+    //Przyjęty jest zawsze początek paczki; przy przepełnieniu klient ponawia zdarzenia od indeksu accepted
+    private int accepted;
+    private int dropped;
+}
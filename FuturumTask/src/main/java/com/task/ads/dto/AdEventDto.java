@@ -0,0 +1,34 @@
+package com.task.ads.dto;
+
+import com.task.ads.enums.AdEventType;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdEventDto {
+
+    @NotNull(message = "Event type is mandatory")
+    private AdEventType type;
+
+    @NotNull(message = "Campaign id is mandatory")
+    private Long campaignId;
+
+    //Miasto, w którym wyświetlono reklamę; spoza listy predefiniowanych trafia do statystyk bez miasta
+    private String town;
+
+    //Brak oznacza chwilę przyjęcia zdarzenia
+    private Instant occurredAt;
+
+    @DecimalMin(value = "0.00", message = "Cost cannot be negative")
+    @Digits(integer = 12, fraction = 2, message = "Cost must have at most 2 decimal places")
+    private BigDecimal cost;
+}
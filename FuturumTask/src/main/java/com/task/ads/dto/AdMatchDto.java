@@ -0,0 +1,17 @@
+package com.task.ads.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdMatchDto {
+    private Long campaignId;
+    private String campaignName;
+    private Long sellerId;
+    private BigDecimal bidAmount;
+}
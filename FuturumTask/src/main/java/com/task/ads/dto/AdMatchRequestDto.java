@@ -0,0 +1,23 @@
+package com.task.ads.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdMatchRequestDto {
+
+    @NotBlank(message = "Keyword is mandatory")
+    private String keyword;
+
+    private String town;
+
+    @Min(value = 1, message = "At least one ad slot is required")
+    @Max(value = 20, message = "At most 20 ad slots can be requested")
+    private int slots = 1;
+}
@@ -0,0 +1,18 @@
+package com.task.ads.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdStatsPointDto {
+    private Instant minute;
+    private Long impressions;
+    private Long clicks;
+    private BigDecimal spend;
+}
@@ -0,0 +1,17 @@
+package com.task.ads.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CampaignStatsDto {
+    private Long campaignId;
+    private Long impressions;
+    private Long clicks;
+    private BigDecimal spend;
+}
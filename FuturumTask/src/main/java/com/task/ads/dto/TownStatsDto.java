@@ -0,0 +1,18 @@
+package com.task.ads.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TownStatsDto {
+    //Pusty napis - wyświetlenia poza predefiniowanymi miastami
+    private String town;
+    private Long impressions;
+    private Long clicks;
+    private BigDecimal spend;
+}
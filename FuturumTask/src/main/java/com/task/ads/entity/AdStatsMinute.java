@@ -0,0 +1,37 @@
+package com.task.ads.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+//Zagregowane zdarzenia reklam: jeden wiersz na kampanię, minutę i miasto. Zapisywane wyłącznie przez
+//AdEventIngestionService (UPDATE dodający liczniki albo INSERT), czytane przez zapytania dashboardu
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "ad_stats_minute", indexes = {
+        @Index(name = "idx_ad_stats_minute_campaign", columnList = "campaign_id, minute_start"),
+        @Index(name = "idx_ad_stats_minute_seller", columnList = "seller_id, minute_start"),
+        @Index(name = "idx_ad_stats_minute_minute", columnList = "minute_start")})
+public class AdStatsMinute {
+
+    @EmbeddedId
+    private AdStatsMinuteId id;
+
+    //Kopia z kampanii, żeby statystyki sprzedawcy nie wymagały złączenia i przetrwały usunięcie kampanii
+    @Column(name = "seller_id", nullable = false)
+    private Long sellerId;
+
+    @Column(nullable = false)
+    private long impressions;
+
+    @Column(nullable = false)
+    private long clicks;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal spend;
+}
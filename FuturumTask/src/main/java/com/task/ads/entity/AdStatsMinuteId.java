@@ -0,0 +1,26 @@
+package com.task.ads.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+@Data
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdStatsMinuteId implements Serializable {
+
+    @Column(name = "campaign_id", nullable = false)
+    private Long campaignId;
+
+    @Column(nullable = false)
+    private Instant minuteStart;
+
+    @Column(nullable = false)
+    private String town;
+}
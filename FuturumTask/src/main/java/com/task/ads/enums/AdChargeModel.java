@@ -0,0 +1,5 @@
+package com.task.ads.enums;
+
+public enum AdChargeModel {
+    IMPRESSION, CLICK
+}
@@ -0,0 +1,49 @@
+package com.task.ads.repository;
+
+import com.task.ads.dto.AdStatsPointDto;
+import com.task.ads.dto.CampaignStatsDto;
+import com.task.ads.dto.SellerStatsDto;
+import com.task.ads.dto.TownStatsDto;
+import com.task.ads.entity.AdStatsMinute;
+import com.task.ads.entity.AdStatsMinuteId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+//Wszystkie zapytania dotyczą przedziału minut [from, to)
+@Repository
+public interface AdStatsRepository extends JpaRepository<AdStatsMinute, AdStatsMinuteId> {
+
+    String TOTALS = "SUM(s.impressions), SUM(s.clicks), SUM(s.spend)) FROM AdStatsMinute s ";
+    String IN_RANGE = "s.id.minuteStart >= :from AND s.id.minuteStart < :to ";
+
+    @Query("SELECT new com.task.ads.dto.AdStatsPointDto(s.id.minuteStart, " + TOTALS +
+            "WHERE s.id.campaignId = :campaignId AND " + IN_RANGE +
+            "GROUP BY s.id.minuteStart ORDER BY s.id.minuteStart")
+    List<AdStatsPointDto> findCampaignSeries(@Param("campaignId") Long campaignId,
+                                             @Param("from") Instant from,
+                                             @Param("to") Instant to);
+
+    @Query("SELECT new com.task.ads.dto.SellerStatsDto(s.sellerId, " + TOTALS +
+            "WHERE " + IN_RANGE +
+            "GROUP BY s.sellerId ORDER BY SUM(s.spend) DESC")
+    List<SellerStatsDto> findSellerTotals(@Param("from") Instant from, @Param("to") Instant to);
+
+    @Query("SELECT new com.task.ads.dto.CampaignStatsDto(s.id.campaignId, " + TOTALS +
+            "WHERE s.sellerId = :sellerId AND " + IN_RANGE +
+            "GROUP BY s.id.campaignId ORDER BY SUM(s.spend) DESC")
+    List<CampaignStatsDto> findSellerCampaignTotals(@Param("sellerId") Long sellerId,
+                                                    @Param("from") Instant from,
+                                                    @Param("to") Instant to);
+
+    @Query("SELECT new com.task.ads.dto.TownStatsDto(s.id.town, " + TOTALS +
+            "WHERE (:sellerId IS NULL OR s.sellerId = :sellerId) AND " + IN_RANGE +
+            "GROUP BY s.id.town ORDER BY SUM(s.impressions) DESC")
+    List<TownStatsDto> findTownTotals(@Param("sellerId") Long sellerId,
+                                      @Param("from") Instant from,
+                                      @Param("to") Instant to);
+}
@@ -0,0 +1,286 @@
+package com.task.ads.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.task.ads.dto.AdEventBatchResultDto;
+import com.task.ads.dto.AdEventDto;
+import com.task.campaign.dto.TownDto;
+import com.task.campaign.service.TownService;
+import com.task.config.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/// Przyjmuje zdarzenia reklam do ograniczonej kolejki bez blokad. Jeden wątek agregujący zlicza je w pamięci
+/// per kampania, minuta i miasto, a co flush-interval (albo po przekroczeniu max-pending-rollups kluczy)
+/// dopisuje liczniki do ad_stats_minute paczkami UPDATE/INSERT. Pamięć ogranicza pojemność kolejki i liczba kluczy.
+/// Przy shardach statystyki leżą na shardzie domowym, a sprzedawców kampanii odczytujemy z ich shardów.
+@Slf4j
+@Service
+public class AdEventIngestionService {
+
+    private static final String ANY_TOWN = "";
+    private static final int SELLER_LOOKUP_CHUNK = 1000;
+    private static final int FLUSH_CHECK_INTERVAL = 4096;
+
+    //Upsert w dwóch paczkach: UPDATE dodający liczniki, a dla wierszy, których jeszcze nie ma - INSERT.
+    //Bezpieczne, bo do tabeli pisze tylko wątek agregujący (MERGE ... USING w H2 nie korzysta z klucza głównego)
+    private static final String ADD_TO_ROLLUP = """
+            UPDATE ad_stats_minute SET impressions = impressions + ?, clicks = clicks + ?, spend = spend + ?
+            WHERE campaign_id = ? AND minute_start = ? AND town = ?
+            """;
+    private static final String INSERT_ROLLUP = """
+            INSERT INTO ad_stats_minute (impressions, clicks, spend, campaign_id, minute_start, town, seller_id)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TownService townService;
+    private final ShardRouter shardRouter;
+    private final Clock clock = Clock.systemUTC();
+    private final AdEventQueue<AdEventDto> queue;
+    private final long flushIntervalNanos;
+    private final int maxPendingRollups;
+    private final int writeBatchSize;
+
+    //Stan wątku agregującego - nie jest współdzielony
+    private final Map<RollupKey, Rollup> pending = new HashMap<>();
+    //Kampanie nie zmieniają sprzedawcy, więc raz odczytane przypisanie jest zawsze aktualne
+    private final Cache<Long, Long> sellerByCampaign = Caffeine.newBuilder().maximumSize(100_000).build();
+    private final Thread aggregator = new Thread(this::aggregate, "ad-events");
+    private volatile boolean running = true;
+
+    private final Counter acceptedEvents;
+    private final Counter droppedEvents;
+    private final Counter unknownCampaignEvents;
+    private final Timer flushTimer;
+
+    public AdEventIngestionService(JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   TownService townService,
+                                   ShardRouter shardRouter,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${ads.events.queue-capacity:262144}") int queueCapacity,
+                                   @Value("${ads.events.flush-interval:5s}") Duration flushInterval,
+                                   @Value("${ads.events.max-pending-rollups:50000}") int maxPendingRollups,
+                                   @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int writeBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.townService = townService;
+        this.shardRouter = shardRouter;
+        this.queue = new AdEventQueue<>(queueCapacity);
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.maxPendingRollups = maxPendingRollups;
+        this.writeBatchSize = writeBatchSize;
+
+        Gauge.builder("ads.events.queue.size", queue, AdEventQueue::size)
+                .description("Events waiting for aggregation")
+                .register(meterRegistry);
+        this.acceptedEvents = Counter.builder("ads.events.accepted").register(meterRegistry);
+        this.droppedEvents = Counter.builder("ads.events.dropped")
+                .description("Events rejected because the queue was full")
+                .register(meterRegistry);
+        this.unknownCampaignEvents = Counter.builder("ads.events.unknown.campaign").register(meterRegistry);
+        this.flushTimer = Timer.builder("ads.events.flush").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        aggregator.setDaemon(true);
+        aggregator.start();
+        log.info("Ad event pipeline started with queue capacity {}", queue.capacity());
+    }
+
+    /// Wstawia zdarzenia po kolei i zatrzymuje się na pierwszym, które nie mieści się w kolejce,
+    /// więc klient może ponowić dokładnie resztę paczki.
+    public AdEventBatchResultDto ingest(List<AdEventDto> events) {
+        Instant receivedAt = clock.instant();
+        int accepted = 0;
+        for (AdEventDto event : events) {
+            if (event.getOccurredAt() == null) {
+                event.setOccurredAt(receivedAt);
+            }
+            if (!queue.offer(event)) {
+                break;
+            }
+            accepted++;
+        }
+        int dropped = events.size() - accepted;
+        acceptedEvents.increment(accepted);
+        if (dropped > 0) {
+            droppedEvents.increment(dropped);
+            log.warn("Ad event queue full, dropped {} of {} events", dropped, events.size());
+        }
+        return new AdEventBatchResultDto(accepted, dropped);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        aggregator.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void aggregate() {
+        long lastFlush = System.nanoTime();
+        int sinceCheck = 0;
+        while (running) {
+            AdEventDto event = queue.poll();
+            if (event != null) {
+                add(event);
+                if (pending.size() < maxPendingRollups && ++sinceCheck < FLUSH_CHECK_INTERVAL) {
+                    continue;
+                }
+                sinceCheck = 0;
+            } else if (System.nanoTime() - lastFlush < flushIntervalNanos) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                continue;
+            }
+            if (pending.size() >= maxPendingRollups || System.nanoTime() - lastFlush >= flushIntervalNanos) {
+                flush();
+                lastFlush = System.nanoTime();
+            }
+        }
+        //Zamknięcie aplikacji: to, co zostało w kolejce, też trafia do bazy
+        for (AdEventDto event = queue.poll(); event != null; event = queue.poll()) {
+            add(event);
+        }
+        flush();
+    }
+
+    private void add(AdEventDto event) {
+        String town = townService.findTown(event.getTown()).map(TownDto::getName).orElse(ANY_TOWN);
+        long minute = event.getOccurredAt().getEpochSecond() / 60;
+        Rollup rollup = pending.computeIfAbsent(new RollupKey(event.getCampaignId(), minute, town), key -> new Rollup());
+        switch (event.getType()) {
+            case IMPRESSION -> rollup.impressions++;
+            case CLICK -> rollup.clicks++;
+        }
+        if (event.getCost() != null) {
+            rollup.spendMinor += event.getCost().movePointRight(2).longValue();
+        }
+    }
+
+    private void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            Map<Long, Long> sellers = resolveSellers();
+            List<Object[]> rows = new ArrayList<>(pending.size());
+            long unknown = 0;
+            for (Map.Entry<RollupKey, Rollup> entry : pending.entrySet()) {
+                RollupKey key = entry.getKey();
+                Rollup rollup = entry.getValue();
+                Long sellerId = sellers.get(key.campaignId());
+                if (sellerId == null) {
+                    unknown += rollup.impressions + rollup.clicks;
+                    continue;
+                }
+                //Kolejność kolumn jak w INSERT_ROLLUP; UPDATE używa sześciu pierwszych
+                rows.add(new Object[]{rollup.impressions, rollup.clicks, BigDecimal.valueOf(rollup.spendMinor, 2),
+                        key.campaignId(),
+                        OffsetDateTime.ofInstant(Instant.ofEpochSecond(key.minute() * 60), ZoneOffset.UTC),
+                        key.town(), sellerId});
+            }
+            //Jedna transakcja na cały zapis: po błędzie nic nie zostaje dodane dwa razy przy ponowieniu
+            shardRouter.runOnShard(ShardRouter.HOME_SHARD, false, () -> transactionTemplate.executeWithoutResult(status -> {
+                for (int from = 0; from < rows.size(); from += writeBatchSize) {
+                    write(rows.subList(from, Math.min(from + writeBatchSize, rows.size())));
+                }
+            }));
+            unknownCampaignEvents.increment(unknown);
+            log.debug("Flushed {} ad stat rollups", rows.size());
+            pending.clear();
+        } catch (RuntimeException e) {
+            //Liczniki zostają w pamięci do następnej próby; przy niedostępnej bazie zapełnia się kolejka
+            //i nadmiar zdarzeń jest odrzucany już przy przyjęciu
+            log.error("Failed to flush {} ad stat rollups, will retry", pending.size(), e);
+            LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void write(List<Object[]> rows) {
+        int[] updated = jdbcTemplate.batchUpdate(ADD_TO_ROLLUP, rows.stream()
+                .map(row -> Arrays.copyOf(row, 6))
+                .toList());
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                inserts.add(rows.get(i));
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ROLLUP, inserts);
+        }
+    }
+
+    //Zdarzenia dla nieistniejących kampanii nie mają sprzedawcy i są pomijane
+    private Map<Long, Long> resolveSellers() {
+        Map<Long, Long> sellers = new HashMap<>();
+        Set<Long> unresolved = new LinkedHashSet<>();
+        for (RollupKey key : pending.keySet()) {
+            Long sellerId = sellerByCampaign.getIfPresent(key.campaignId());
+            if (sellerId != null) {
+                sellers.put(key.campaignId(), sellerId);
+            } else {
+                unresolved.add(key.campaignId());
+            }
+        }
+        Map<Integer, List<Long>> missingByShard = new HashMap<>();
+        unresolved.forEach(campaignId -> missingByShard
+                .computeIfAbsent(shardRouter.shardOfCampaign(campaignId), shard -> new ArrayList<>())
+                .add(campaignId));
+        missingByShard.forEach((shard, missing) -> shardRouter.runOnShard(shard, true, () -> {
+            for (int from = 0; from < missing.size(); from += SELLER_LOOKUP_CHUNK) {
+                namedJdbcTemplate.query("SELECT id, seller_id FROM campaigns WHERE id IN (:ids)",
+                        new MapSqlParameterSource("ids", missing.subList(from, Math.min(from + SELLER_LOOKUP_CHUNK, missing.size()))),
+                        row -> {
+                            sellers.put(row.getLong("id"), row.getLong("seller_id"));
+                            sellerByCampaign.put(row.getLong("id"), row.getLong("seller_id"));
+                        });
+            }
+        }));
+        return sellers;
+    }
+
+    private record RollupKey(long campaignId, long minute, String town) {
+    }
+
+    private static final class Rollup {
+        private long impressions;
+        private long clicks;
+        private long spendMinor;
+    }
+}
@@ -0,0 +1,75 @@
+package com.task.ads.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/// Ograniczona kolejka bez blokad dla wielu producentów i jednego konsumenta (algorytm D. Vyukova).
+/// Każda komórka ma numer sekwencyjny mówiący, czy czeka na zapis (równy pozycji), czy na odczyt
+/// (pozycja + 1). Producenci rezerwują pozycję jednym CAS-em; pełna kolejka od razu odrzuca element.
+final class AdEventQueue<E> {
+
+    private final Object[] buffer;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong enqueuePosition = new AtomicLong();
+    //Czytana i zapisywana wyłącznie przez wątek konsumenta
+    private long dequeuePosition;
+    //Kopia dequeuePosition widoczna dla innych wątków (metryka długości kolejki)
+    private volatile long publishedDequeuePosition;
+
+    AdEventQueue(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.buffer = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return buffer.length;
+    }
+
+    /// Przybliżona liczba elementów - do metryk.
+    int size() {
+        return (int) Math.max(0, enqueuePosition.get() - publishedDequeuePosition);
+    }
+
+    boolean offer(E element) {
+        long position = enqueuePosition.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (enqueuePosition.compareAndSet(position, position + 1)) {
+                    buffer[index] = element;
+                    //Publikacja elementu: konsument czyta komórkę dopiero po zobaczeniu nowego numeru
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+                position = enqueuePosition.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = enqueuePosition.get();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    E poll() {
+        long position = dequeuePosition;
+        int index = (int) position & mask;
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        E element = (E) buffer[index];
+        buffer[index] = null;
+        //Komórka wolna dla producenta, który dojdzie do niej przy kolejnym obiegu bufora
+        sequences.lazySet(index, position + buffer.length);
+        dequeuePosition = position + 1;
+        publishedDequeuePosition = position + 1;
+        return element;
+    }
+}
@@ -0,0 +1,403 @@
+package com.task.ads.service;
+
+import com.task.ads.dto.AdMatchDto;
+import com.task.ads.enums.AdChargeModel;
+import com.task.campaign.dto.CampaignResponseDto;
+import com.task.campaign.entity.Campaign;
+import com.task.campaign.enums.CampaignChangeType;
+import com.task.campaign.enums.CampaignStatus;
+import com.task.campaign.event.CampaignChangedEvent;
+import com.task.campaign.repository.CampaignRepository;
+import com.task.campaign.service.CampaignCacheInvalidator;
+import com.task.campaign.service.ListVersionService;
+import com.task.config.sharding.ShardRouter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/// Dobiera reklamy dla zapytania (słowo kluczowe, miasto) spośród aktywnych kampanii.
+/// Odczyty nie biorą żadnych blokad: indeks to niezmienne tablice podmieniane przy zapisie (copy-on-write),
+/// a budżet każdej kampanii to osobny licznik CAS w groszach. Wydane kwoty trafiają do tabeli campaigns
+/// okresowo, jednym UPDATE-em na kampanię. Tempo wydawania ogranicza przydział odnawiany co okres pacingu
+/// (CampaignPacingService): część pozostałego funduszu proporcjonalna do długości okresu względem horyzontu.
+@Slf4j
+@Service
+public class AdMatchingEngine {
+
+    private static final CampaignSlot[] NO_SLOTS = new CampaignSlot[0];
+    //Wydatki zapisujemy paczkami w osobnych transakcjach, żeby nie trzymać blokad na wszystkich kampaniach naraz
+    private static final int SPEND_FLUSH_BATCH = 500;
+    //Kampanie bez miasta są wyświetlane w każdym mieście
+    private static final String ANY_TOWN = "";
+    private static final Comparator<CampaignSlot> HIGHEST_BID_FIRST =
+            Comparator.comparingLong((CampaignSlot slot) -> slot.bidMinor).reversed()
+                    .thenComparingLong(slot -> slot.campaignId);
+
+    private final CampaignRepository campaignRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CampaignCacheInvalidator campaignCacheInvalidator;
+    private final ListVersionService listVersionService;
+    private final ShardRouter shardRouter;
+    private final AdChargeModel chargeModel;
+    //Ułamek pozostałego funduszu dostępny w jednym okresie pacingu; 1 wyłącza pacing
+    private final double pacingShare;
+
+    //słowo kluczowe -> miasto -> kampanie malejąco po stawce
+    private final Map<String, Map<String, CampaignSlot[]>> index = new ConcurrentHashMap<>();
+    private final Map<Long, CampaignSlot> slotsByCampaign = new ConcurrentHashMap<>();
+    private final Map<Long, BudgetCounter> budgets = new ConcurrentHashMap<>();
+
+    public AdMatchingEngine(CampaignRepository campaignRepository,
+                            TransactionTemplate transactionTemplate,
+                            CampaignCacheInvalidator campaignCacheInvalidator,
+                            ListVersionService listVersionService,
+                            ShardRouter shardRouter,
+                            @Value("${ads.charge-model:IMPRESSION}") AdChargeModel chargeModel,
+                            @Value("${ads.pacing.enabled:true}") boolean pacingEnabled,
+                            @Value("${ads.pacing.interval:1m}") Duration pacingInterval,
+                            @Value("${ads.pacing.horizon:24h}") Duration pacingHorizon) {
+        this.campaignRepository = campaignRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.campaignCacheInvalidator = campaignCacheInvalidator;
+        this.listVersionService = listVersionService;
+        this.shardRouter = shardRouter;
+        this.chargeModel = chargeModel;
+        this.pacingShare = pacingEnabled
+                ? Math.min(1, (double) pacingInterval.toMillis() / pacingHorizon.toMillis())
+                : 1;
+    }
+
+    public AdChargeModel getChargeModel() {
+        return chargeModel;
+    }
+
+    public List<AdMatchDto> match(String keyword, String town, int slots) {
+        Map<String, CampaignSlot[]> towns = index.get(normalize(keyword));
+        if (towns == null) {
+            return List.of();
+        }
+        CampaignSlot[] local = town == null ? NO_SLOTS : towns.getOrDefault(normalize(town), NO_SLOTS);
+        CampaignSlot[] anyTown = towns.getOrDefault(ANY_TOWN, NO_SLOTS);
+
+        List<AdMatchDto> winners = new ArrayList<>(slots);
+        int i = 0;
+        int j = 0;
+        while (winners.size() < slots && (i < local.length || j < anyTown.length)) {
+            CampaignSlot candidate = j >= anyTown.length
+                    || (i < local.length && local[i].bidMinor >= anyTown[j].bidMinor) ? local[i++] : anyTown[j++];
+            boolean eligible = chargeModel == AdChargeModel.IMPRESSION
+                    ? candidate.budget.tryCharge(candidate.bidMinor)
+                    : candidate.budget.canAfford(candidate.bidMinor);
+            if (eligible) {
+                winners.add(candidate.toDto());
+            }
+        }
+        return winners;
+    }
+
+    /// W modelu CLICK obciąża kampanię stawką za kliknięcie. Zwraca false, gdy kampania nie jest aktywna
+    /// albo nie ma już środków.
+    public boolean recordClick(Long campaignId) {
+        CampaignSlot slot = slotsByCampaign.get(campaignId);
+        if (slot == null) {
+            return false;
+        }
+        return chargeModel != AdChargeModel.CLICK || slot.budget.tryCharge(slot.bidMinor);
+    }
+
+    /// Odnawia przydziały wszystkich aktywnych kampanii na kolejny okres. Niewykorzystany przydział przepada,
+    /// więc kampania nie nadrobi przestoju jednym skokiem wydatków.
+    public void refillPacing() {
+        slotsByCampaign.values().forEach(slot -> slot.budget.refill(slot.bidMinor, pacingShare));
+    }
+
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadActiveCampaigns() {
+        Map<String, Map<String, List<CampaignSlot>>> buckets = new HashMap<>();
+        synchronized (this) {
+            shardRouter.forEachShard(true, shard -> {
+                try (Stream<CampaignResponseDto> campaigns =
+                             campaignRepository.streamFiltered(CampaignStatus.ON, null, null, null, null)) {
+                    campaigns.forEach(campaign -> {
+                        CampaignSlot slot = createSlot(campaign);
+                        slotsByCampaign.put(slot.campaignId, slot);
+                        for (String keyword : slot.keywords) {
+                            buckets.computeIfAbsent(keyword, k -> new HashMap<>())
+                                    .computeIfAbsent(slot.town, t -> new ArrayList<>())
+                                    .add(slot);
+                        }
+                    });
+                }
+            });
+            buckets.forEach((keyword, towns) -> {
+                Map<String, CampaignSlot[]> townSlots = new ConcurrentHashMap<>();
+                towns.forEach((town, slots) -> {
+                    slots.sort(HIGHEST_BID_FIRST);
+                    townSlots.put(town, slots.toArray(NO_SLOTS));
+                });
+                index.put(keyword, townSlots);
+            });
+        }
+        log.info("Ad matching engine loaded {} active campaigns", slotsByCampaign.size());
+    }
+
+    @TransactionalEventListener
+    public synchronized void onCampaignChanged(CampaignChangedEvent event) {
+        CampaignSlot previous = slotsByCampaign.remove(event.getCampaignId());
+        if (previous != null) {
+            removeFromIndex(previous);
+        }
+        if (event.getType() == CampaignChangeType.DELETED) {
+            budgets.remove(event.getCampaignId());
+            return;
+        }
+        CampaignResponseDto campaign = event.getCampaign();
+        if (campaign.getStatus() == CampaignStatus.ON) {
+            CampaignSlot slot = createSlot(campaign);
+            slotsByCampaign.put(slot.campaignId, slot);
+            addToIndex(slot);
+        }
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${ads.spend-flush-interval-ms:5000}")
+    public void flushSpend() {
+        //Paczka trafia do jednego shardu - shard kampanii wynika z jej id
+        Map<Integer, List<Long>> idsByShard = new HashMap<>();
+        budgets.forEach((campaignId, budget) -> {
+            if (budget.unflushed.get() > 0) {
+                idsByShard.computeIfAbsent(shardRouter.shardOfCampaign(campaignId), shard -> new ArrayList<>())
+                        .add(campaignId);
+            }
+        });
+        if (idsByShard.isEmpty()) {
+            return;
+        }
+        int written = 0;
+        for (Map.Entry<Integer, List<Long>> entry : idsByShard.entrySet()) {
+            List<Long> ids = entry.getValue();
+            for (int from = 0; from < ids.size(); from += SPEND_FLUSH_BATCH) {
+                written += flushBatch(entry.getKey(), ids.subList(from, Math.min(from + SPEND_FLUSH_BATCH, ids.size())));
+            }
+        }
+        listVersionService.campaignsChanged();
+        log.debug("Wrote back spend of {} campaigns", written);
+    }
+
+    /// Rozlicza budżet usuwanej kampanii w bieżącej transakcji: wstrzymuje jej obciążenia i zwraca wydatki, których
+    /// zapis okresowy nie przeniósł jeszcze do bazy - usuwający odlicza je od zwracanego funduszu. Trwający zapis
+    /// wydatków tej kampanii kończy się przed powrotem, a kolejne ją pomijają do końca transakcji. Po wycofaniu
+    /// transakcji wydatki wracają do zapisu okresowego, a kampania znów może być obciążana.
+    public BigDecimal settleBeforeDelete(Long campaignId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Settling campaign spend requires an active transaction");
+        }
+        BudgetCounter budget = budgets.get(campaignId);
+        if (budget == null) {
+            return BigDecimal.ZERO;
+        }
+        budget.writeBack.lock();
+        long remaining = budget.remaining.getAndSet(0);
+        long spent = budget.unflushed.getAndSet(0);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    budget.unflushed.addAndGet(spent);
+                    budget.remaining.addAndGet(remaining);
+                }
+                budget.writeBack.unlock();
+            }
+        });
+        return BigDecimal.valueOf(spent, 2);
+    }
+
+    /// Wydatki przechodzą z unflushed do inFlight i znikają z niego dopiero po commicie, więc zmiana kampanii
+    /// w trakcie zapisu nie zawyża budżetu w createSlot. Budżety paczki są zablokowane do końca zapisu - usunięcie
+    /// kampanii czeka na niego, a budżet zablokowany przez usuwanie jest pomijany (rozlicza go usuwający).
+    private int flushBatch(int shard, List<Long> campaignIds) {
+        List<PendingSpend> batch = new ArrayList<>(campaignIds.size());
+        for (Long campaignId : campaignIds) {
+            BudgetCounter budget = budgets.get(campaignId);
+            if (budget == null || !budget.writeBack.tryLock()) {
+                continue;
+            }
+            long spent = budget.unflushed.get();
+            if (spent == 0) {
+                budget.writeBack.unlock();
+                continue;
+            }
+            budget.inFlight.addAndGet(spent);
+            budget.unflushed.addAndGet(-spent);
+            batch.add(new PendingSpend(campaignId, budget, spent));
+        }
+        try {
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            boolean committed = false;
+            try {
+                shardRouter.runOnShard(shard, false, () -> transactionTemplate.executeWithoutResult(status ->
+                        batch.forEach(pending -> campaignRepository.chargeSpend(pending.campaignId(),
+                                BigDecimal.valueOf(pending.spent(), 2)))));
+                committed = true;
+            } catch (RuntimeException e) {
+                log.error("Failed to write back spend of {} campaigns, will retry", batch.size(), e);
+            }
+            for (PendingSpend pending : batch) {
+                //Przy niepowodzeniu kwota najpierw wraca do unflushed, dopiero potem znika z inFlight
+                if (!committed) {
+                    pending.budget().unflushed.addAndGet(pending.spent());
+                }
+                pending.budget().inFlight.addAndGet(-pending.spent());
+                if (committed) {
+                    campaignCacheInvalidator.evictCampaign(pending.campaignId());
+                }
+            }
+            return committed ? batch.size() : 0;
+        } finally {
+            batch.forEach(pending -> pending.budget().writeBack.unlock());
+        }
+    }
+
+    private CampaignSlot createSlot(CampaignResponseDto campaign) {
+        BudgetCounter budget = budgets.computeIfAbsent(campaign.getId(), id -> new BudgetCounter());
+        //Fundusz z bazy nie zawiera jeszcze wydatków czekających na zapis ani zapisywanych w tej chwili
+        budget.remaining.set(toMinorUnits(campaign.getCampaignFund()) - budget.pendingSpend());
+        long bidMinor = toMinorUnits(campaign.getBidAmount());
+        budget.refill(bidMinor, pacingShare);
+        return new CampaignSlot(
+                campaign.getId(),
+                campaign.getCampaignName(),
+                campaign.getSellerId(),
+                bidMinor,
+                campaign.getTown() == null ? ANY_TOWN : normalize(campaign.getTown()),
+                Campaign.tokenizeKeywords(campaign.getKeywords()).toArray(new String[0]),
+                budget);
+    }
+
+    private void addToIndex(CampaignSlot slot) {
+        for (String keyword : slot.keywords) {
+            index.computeIfAbsent(keyword, k -> new ConcurrentHashMap<>())
+                    .compute(slot.town, (town, slots) -> {
+                        CampaignSlot[] current = slots == null ? NO_SLOTS : slots;
+                        CampaignSlot[] updated = Arrays.copyOf(current, current.length + 1);
+                        int position = Arrays.binarySearch(current, slot, HIGHEST_BID_FIRST);
+                        int insertAt = position >= 0 ? position : -position - 1;
+                        System.arraycopy(current, insertAt, updated, insertAt + 1, current.length - insertAt);
+                        updated[insertAt] = slot;
+                        return updated;
+                    });
+        }
+    }
+
+    private void removeFromIndex(CampaignSlot slot) {
+        for (String keyword : slot.keywords) {
+            Map<String, CampaignSlot[]> towns = index.get(keyword);
+            if (towns == null) {
+                continue;
+            }
+            towns.computeIfPresent(slot.town, (town, slots) -> {
+                CampaignSlot[] updated = Arrays.stream(slots)
+                        .filter(candidate -> candidate.campaignId != slot.campaignId)
+                        .toArray(CampaignSlot[]::new);
+                return updated.length == 0 ? null : updated;
+            });
+            if (towns.isEmpty()) {
+                index.remove(keyword, towns);
+            }
+        }
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.DOWN).unscaledValue().longValueExact();
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class BudgetCounter {
+        private final AtomicLong remaining = new AtomicLong();
+        private final AtomicLong unflushed = new AtomicLong();
+        //Wydatki w zapisie, który jeszcze się nie zatwierdził
+        private final AtomicLong inFlight = new AtomicLong();
+        private final ReentrantLock writeBack = new ReentrantLock();
+        //Limit pacingu jest miękki: równoległe obciążenia mogą go przekroczyć najwyżej o kilka stawek,
+        //twardym limitem pozostaje remaining
+        private final AtomicLong allowance = new AtomicLong();
+
+        //Kwota przenoszona w tej chwili między unflushed a inFlight może zostać policzona podwójnie, ale nie pominięta:
+        //odczyt jest powtarzany, gdy inFlight zmienił się w jego trakcie
+        long pendingSpend() {
+            while (true) {
+                long writing = inFlight.get();
+                long notWritten = unflushed.get();
+                if (inFlight.get() == writing) {
+                    return notWritten + writing;
+                }
+            }
+        }
+
+        boolean canAfford(long amount) {
+            return remaining.get() >= amount && allowance.get() >= amount;
+        }
+
+        boolean tryCharge(long amount) {
+            if (allowance.get() < amount) {
+                return false;
+            }
+            long current;
+            do {
+                current = remaining.get();
+                if (current < amount) {
+                    return false;
+                }
+            } while (!remaining.compareAndSet(current, current - amount));
+            allowance.addAndGet(-amount);
+            unflushed.addAndGet(amount);
+            return true;
+        }
+
+        //Zawsze co najmniej jedna stawka, żeby mały fundusz nie utknął poniżej progu przydziału
+        void refill(long bidMinor, double share) {
+            allowance.set(Math.max(bidMinor, (long) (remaining.get() * share)));
+        }
+    }
+
+    private record PendingSpend(Long campaignId, BudgetCounter budget, long spent) {
+    }
+
+    private record CampaignSlot(long campaignId, String campaignName, Long sellerId, long bidMinor,
+                                String town, String[] keywords, BudgetCounter budget) {
+
+        AdMatchDto toDto() {
+            return new AdMatchDto(campaignId, campaignName, sellerId, BigDecimal.valueOf(bidMinor, 2));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.task.ads.service;
+
+import com.task.ads.dto.AdStatsPointDto;
+import com.task.ads.dto.CampaignStatsDto;
+import com.task.ads.dto.SellerStatsDto;
+import com.task.ads.dto.TownStatsDto;
+import com.task.ads.repository.AdStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/// Zapytania dashboardu - czytają wyłącznie minutowe agregaty z ad_stats_minute. Domyślnie ostatnie 24 godziny;
+/// granice zaokrąglamy do pełnych minut, bo tylko z taką dokładnością trzymamy dane.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AdStatsService {
+
+    public static final Duration DEFAULT_RANGE = Duration.ofHours(24);
+    public static final Duration MAX_RANGE = Duration.ofDays(31);
+
+    private final AdStatsRepository adStatsRepository;
+
+    @Transactional(readOnly = true)
+    public List<AdStatsPointDto> getCampaignSeries(Long campaignId, Instant from, Instant to) {
+        Range range = Range.of(from, to);
+        log.info("Fetching ad stats of campaign ID: {} from {} to {}", campaignId, range.from(), range.to());
+        return adStatsRepository.findCampaignSeries(campaignId, range.from(), range.to());
+    }
+
+    @Transactional(readOnly = true)
+    public List<SellerStatsDto> getSellerTotals(Instant from, Instant to) {
+        Range range = Range.of(from, to);
+        log.info("Fetching ad stats of all sellers from {} to {}", range.from(), range.to());
+        return adStatsRepository.findSellerTotals(range.from(), range.to());
+    }
+
+    @Transactional(readOnly = true)
+    public List<CampaignStatsDto> getSellerCampaignTotals(Long sellerId, Instant from, Instant to) {
+        Range range = Range.of(from, to);
+        log.info("Fetching ad stats of seller ID: {} campaigns from {} to {}", sellerId, range.from(), range.to());
+        return adStatsRepository.findSellerCampaignTotals(sellerId, range.from(), range.to());
+    }
+
+    @Transactional(readOnly = true)
+    public List<TownStatsDto> getTownTotals(Long sellerId, Instant from, Instant to) {
+        Range range = Range.of(from, to);
+        log.info("Fetching ad stats per town (seller ID: {}) from {} to {}", sellerId, range.from(), range.to());
+        return adStatsRepository.findTownTotals(sellerId, range.from(), range.to());
+    }
+
+    private record Range(Instant from, Instant to) {
+
+        //Zbyt szeroki przedział skracamy od strony from, żeby jedno zapytanie nie skanowało całej historii
+        static Range of(Instant from, Instant to) {
+            Instant end = (to != null ? to : Instant.now()).truncatedTo(ChronoUnit.MINUTES).plus(1, ChronoUnit.MINUTES);
+            Instant start = from != null ? from.truncatedTo(ChronoUnit.MINUTES) : end.minus(DEFAULT_RANGE);
+            if (start.isBefore(end.minus(MAX_RANGE))) {
+                start = end.minus(MAX_RANGE);
+            }
+            return new Range(start, end);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.task.ads.service;
+
+import com.task.campaign.dto.CampaignResponseDto;
+import com.task.campaign.enums.CampaignChangeType;
+import com.task.campaign.enums.CampaignStatus;
+import com.task.campaign.event.CampaignChangedEvent;
+import com.task.campaign.repository.CampaignRepository;
+import com.task.config.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/// Co okres pacingu: zapisuje wydatki silnika reklam, wyłącza kampanie, których fundusz nie pokrywa już jednej
+/// stawki, i odnawia przydziały na kolejny okres. Wyłączanie idzie paczkami po id (keyset), każda paczka to
+/// jeden UPDATE w osobnej, krótkiej transakcji - bez ładowania encji i bez blokowania całej tabeli.
+@Slf4j
+@Service
+public class CampaignPacingService {
+
+    private final AdMatchingEngine adMatchingEngine;
+    private final CampaignRepository campaignRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShardRouter shardRouter;
+    private final int batchSize;
+
+    public CampaignPacingService(AdMatchingEngine adMatchingEngine,
+                                 CampaignRepository campaignRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 ApplicationEventPublisher eventPublisher,
+                                 ShardRouter shardRouter,
+                                 @Value("${ads.pacing.batch-size:1000}") int batchSize) {
+        this.adMatchingEngine = adMatchingEngine;
+        this.campaignRepository = campaignRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.shardRouter = shardRouter;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedRateString = "${ads.pacing.interval:1m}")
+    public void pace() {
+        //Najpierw wydatki, żeby fundusze w bazie uwzględniały wszystkie obciążenia z silnika
+        adMatchingEngine.flushSpend();
+        int paused = pauseExhaustedCampaigns();
+        adMatchingEngine.refillPacing();
+        if (paused > 0) {
+            log.info("Paused {} campaigns with exhausted funds", paused);
+        }
+    }
+
+    private int pauseExhaustedCampaigns() {
+        int paused = 0;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            paused += pauseExhaustedCampaigns(shard);
+        }
+        return paused;
+    }
+
+    private int pauseExhaustedCampaigns(int shard) {
+        int paused = 0;
+        long afterId = 0;
+        while (true) {
+            long batchAfterId = afterId;
+            List<Long> ids = shardRouter.callOnShard(shard, true,
+                    () -> campaignRepository.findExhaustedIds(batchAfterId, CampaignStatus.ON, Limit.of(batchSize)));
+            if (ids.isEmpty()) {
+                return paused;
+            }
+            Integer updated = shardRouter.callOnShard(shard, false,
+                    () -> transactionTemplate.execute(status -> pauseBatch(ids)));
+            paused += updated == null ? 0 : updated;
+            afterId = ids.get(ids.size() - 1);
+        }
+    }
+
+    private int pauseBatch(List<Long> ids) {
+        int updated = campaignRepository.pauseExhausted(ids, CampaignStatus.ON, CampaignStatus.OFF);
+        if (updated == 0) {
+            return 0;
+        }
+        //Zdarzenia tylko dla faktycznie wyłączonych; słuchacze (indeksy, cache, strumień zmian) reagują po commicie
+        for (CampaignResponseDto campaign : campaignRepository.findResponseDtosByIdIn(ids)) {
+            if (campaign.getStatus() == CampaignStatus.OFF) {
+                eventPublisher.publishEvent(new CampaignChangedEvent(CampaignChangeType.UPDATED,
+                        campaign.getId(), campaign.getSellerId(), campaign.getKeywords(), campaign));
+            }
+        }
+        return updated;
+    }
+}
@@ -1,17 +1,33 @@
 package com.task.campaign.controller;
 
 
+import com.task.campaign.dto.BulkCampaignRequestDto;
+import com.task.campaign.dto.BulkCampaignResponseDto;
+import com.task.campaign.dto.CampaignFilterDto;
+import com.task.campaign.dto.CampaignPageDto;
 import com.task.campaign.dto.CampaignRequestDto;
 import com.task.campaign.dto.CampaignResponseDto;
+import com.task.campaign.enums.CampaignStatus;
 import com.task.campaign.service.CampaignService;
+import com.task.campaign.service.IdempotencyService;
+import com.task.campaign.service.ListVersionService;
+import com.task.config.ratelimit.AdaptiveConcurrencyLimiter;
+import com.task.config.datasource.ReadScope;
+import com.task.config.ratelimit.SellerRateLimiter;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 @Slf4j
 @RestController
@@ -21,19 +37,77 @@ import java.util.List;
 public class CampaignController {
 
     private final CampaignService campaignService;
+    private final ListVersionService listVersionService;
+    private final IdempotencyService idempotencyService;
+    private final SellerRateLimiter sellerRateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
 
     @PostMapping
-    public ResponseEntity<CampaignResponseDto> createCampaign(@Valid @RequestBody CampaignRequestDto campaignRequestDto) {
+    public ResponseEntity<CampaignResponseDto> createCampaign(
+            @Valid @RequestBody CampaignRequestDto campaignRequestDto,
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
         log.info("Received request to create campaign: {}", campaignRequestDto.getCampaignName());
-        CampaignResponseDto createdCampaign = campaignService.createCampaign(campaignRequestDto);
+        //Powtórzone żądanie z tym samym kluczem dostaje tę samą odpowiedź 201 co pierwsze
+        CampaignResponseDto createdCampaign = limited(campaignRequestDto.getSellerId(), 1, () -> idempotencyKey == null
+                ? campaignService.createCampaign(campaignRequestDto)
+                : idempotencyService.createCampaign(idempotencyKey, campaignRequestDto));
         return new ResponseEntity<>(createdCampaign, HttpStatus.CREATED);
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkCampaignResponseDto> bulkCampaigns(@Valid @RequestBody BulkCampaignRequestDto request) {
+        log.info("Received bulk request for seller with ID: {}", request.getSellerId());
+        int items = sizeOf(request.getCreate()) + sizeOf(request.getUpdate()) + sizeOf(request.getDelete());
+        return ResponseEntity.ok(limited(request.getSellerId(), items, () -> campaignService.bulkCampaigns(request)));
+    }
+
     @GetMapping
-    public ResponseEntity<List<CampaignResponseDto>> getAllCampaigns() {
-        log.info("Received request to get all campaigns");
-        List<CampaignResponseDto> campaigns = campaignService.getAllCampaigns();
-        return ResponseEntity.ok(campaigns);
+    public ResponseEntity<CampaignPageDto> getAllCampaigns(CampaignFilterDto filter,
+                                                           @RequestParam(name = "after", required = false) Long after,
+                                                           @RequestParam(name = "limit", defaultValue = "50") int limit,
+                                                           WebRequest request) {
+        //Wersja czytana przed danymi; niezmieniona lista kończy się 304 bez zapytania do bazy
+        String etag = listVersionService.campaignListEtag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        log.info("Received request to get campaigns after ID: {}", after);
+        //Odpowiedź z nowym ETagiem nie może mieć treści z opóźnionej repliki
+        CampaignPageDto campaigns = ReadScope.forAllSellers(
+                () -> campaignService.getAllCampaigns(filter, after, limit));
+        return conditional(etag, campaigns);
+    }
+
+    @GetMapping("/by-keyword")
+    public ResponseEntity<CampaignPageDto> getCampaignsByKeyword(@RequestParam(name = "keyword") String keyword,
+                                                                 @RequestParam(name = "status", defaultValue = "ON") CampaignStatus status,
+                                                                 @RequestParam(name = "after", required = false) Long after,
+                                                                 @RequestParam(name = "limit", defaultValue = "50") int limit,
+                                                                 WebRequest request) {
+        String etag = listVersionService.campaignListEtag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        log.info("Received request to get campaigns by keyword: {}", keyword);
+        return conditional(etag, ReadScope.forAllSellers(
+                () -> campaignService.getCampaignsByKeyword(keyword, status, after, limit)));
+    }
+
+    @GetMapping("/near")
+    public ResponseEntity<List<CampaignResponseDto>> getCampaignsCovering(@RequestParam(name = "lat") double latitude,
+                                                                          @RequestParam(name = "lon") double longitude,
+                                                                          @RequestParam(name = "limit", defaultValue = "50") int limit) {
+        log.info("Received request to get campaigns covering point ({}, {})", latitude, longitude);
+        return ResponseEntity.ok(campaignService.getCampaignsCovering(latitude, longitude, limit));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCampaigns(CampaignFilterDto filter) {
+        log.info("Received request to export campaigns");
+        StreamingResponseBody body = outputStream -> campaignService.exportCampaigns(filter, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @GetMapping("/{id}")
@@ -47,16 +121,48 @@ public class CampaignController {
     public ResponseEntity<CampaignResponseDto> updateCampaign(@PathVariable Long id,
                                                               @Valid @RequestBody CampaignRequestDto campaignRequestDto) {
         log.info("Received request to update campaign with ID: {}: {}", id, campaignRequestDto.getCampaignName());
-        CampaignResponseDto updatedCampaign = campaignService.updateCampaign(id, campaignRequestDto);
+        //Sprzedawca z treści żądania nie decyduje o kubełku - liczy się właściciel zapisanej kampanii
+        CampaignResponseDto updatedCampaign = limitedByOwner(id,
+                () -> campaignService.updateCampaign(id, campaignRequestDto));
         return ResponseEntity.ok(updatedCampaign);
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCampaign(@PathVariable Long id) {
         log.info("Received request to delete campaign with ID: {}", id);
-        campaignService.deleteCampaign(id);
+        limitedByOwner(id, () -> {
+            campaignService.deleteCampaign(id);
+            return null;
+        });
         return ResponseEntity.noContent().build();
     }
 
+    //Najpierw kubełek sprzedawcy (bez kosztu dla bazy), potem globalny limit równoległych zapisów;
+    //koszt paczki to liczba jej pozycji
+    private <T> T limited(Long sellerId, int cost, Supplier<T> write) {
+        sellerRateLimiter.acquire(sellerId, cost);
+        return concurrencyLimiter.call(write);
+    }
+
+    //Właściciel jest odczytywany z kampanii (zwykle z cache) dopiero w ramach globalnego limitu, więc przy
+    //przeciążeniu odrzucone żądania nie sięgają do bazy nawet po sprzedawcę
+    private <T> T limitedByOwner(Long campaignId, Supplier<T> write) {
+        return concurrencyLimiter.call(() -> {
+            sellerRateLimiter.acquire(campaignService.getCampaignById(campaignId).getSellerId(), 1);
+            return write.get();
+        });
+    }
 
+    private static int sizeOf(List<?> items) {
+        return items == null ? 0 : items.size();
+    }
+
+    //no-cache: przeglądarka może trzymać odpowiedź, ale przed użyciem zawsze pyta o nią z If-None-Match
+    private static <T> ResponseEntity<T> conditional(String etag, T body) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(body);
+    }
 }
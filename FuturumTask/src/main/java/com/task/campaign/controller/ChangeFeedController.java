@@ -0,0 +1,23 @@
+package com.task.campaign.controller;
+
+import com.task.campaign.service.ChangeFeedService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/changes")
+@CrossOrigin(origins = "http://localhost:5173")
+public class ChangeFeedController {
+
+    private final ChangeFeedService changeFeedService;
+
+    //EventSource po zerwaniu połączenia sam wysyła nagłówek Last-Event-ID; parametr since służy innym klientom
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId,
+                                @RequestParam(name = "since", required = false) Long since) {
+        return changeFeedService.subscribe(lastEventId != null ? lastEventId : since);
+    }
+}
@@ -17,11 +17,12 @@ public class KeywordController {
     private final KeywordService keywordService;
 
     @GetMapping("/suggestions")
-    public ResponseEntity<List<String>> getKeywordSuggestions(@RequestParam(name = "q", required = false) String query) {
+    public ResponseEntity<List<String>> getKeywordSuggestions(@RequestParam(name = "q", required = false) String query,
+                                                              @RequestParam(name = "limit", defaultValue = "" + KeywordService.DEFAULT_SUGGESTION_LIMIT) int limit) {
         if (query == null || query.trim().length() < 2) {
             return ResponseEntity.ok(Collections.emptyList());
         }
-        return ResponseEntity.ok(keywordService.getTypeaheadSuggestions(query));
+        return ResponseEntity.ok(keywordService.getTypeaheadSuggestions(query, limit));
     }
 
 
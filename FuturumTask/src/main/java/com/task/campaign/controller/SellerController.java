@@ -1,11 +1,15 @@
 package com.task.campaign.controller;
 
+import com.task.campaign.dto.BalanceTransactionDto;
 import com.task.campaign.dto.SellerDto;
+import com.task.campaign.service.ListVersionService;
 import com.task.campaign.service.SellerService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -16,11 +20,20 @@ import java.util.List;
 public class SellerController {
 
     private final SellerService sellerService;
+    private final ListVersionService listVersionService;
 
     @GetMapping
-    public ResponseEntity<List<SellerDto>> getAllSellers() {
+    public ResponseEntity<List<SellerDto>> getAllSellers(WebRequest request) {
+        String etag = listVersionService.sellerListEtag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         List<SellerDto> sellers = sellerService.getAllSellers();
-        return new ResponseEntity<>(sellers, HttpStatus.OK);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(sellers);
     }
 
     @GetMapping("/{id}")
@@ -28,4 +41,11 @@ public class SellerController {
         SellerDto sellerDto = sellerService.getSellerById(id);
         return ResponseEntity.ok(sellerDto);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/{id}/transactions")
+    public ResponseEntity<List<BalanceTransactionDto>> getBalanceHistory(@PathVariable Long id,
+                                                                         @RequestParam(name = "before", required = false) Long before,
+                                                                         @RequestParam(name = "limit", defaultValue = "50") int limit) {
+        return ResponseEntity.ok(sellerService.getBalanceHistory(id, before, limit));
+    }
+}
@@ -1,5 +1,6 @@
 package com.task.campaign.controller;
 
+import com.task.campaign.dto.TownDto;
 import com.task.campaign.service.TownService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -22,4 +23,9 @@ public class TownController {
     public ResponseEntity<List<String>> getAllTowns() {
         return ResponseEntity.ok(townService.getAllPredefinedTowns());
     }
-}
\ No newline at end of file
+
+    @GetMapping("/coordinates")
+    public ResponseEntity<List<TownDto>> getAllTownsWithCoordinates() {
+        return ResponseEntity.ok(townService.getAllPredefinedTownsWithCoordinates());
+    }
+}
@@ -0,0 +1,21 @@
+package com.task.campaign.dto;
+
+import com.task.campaign.enums.BalanceTransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceTransactionDto {
+    private Long id;
+    private Long campaignId;
+    private BalanceTransactionType type;
+    private BigDecimal amount;
+    private BigDecimal balanceAfter;
+    private Instant createdAt;
+}
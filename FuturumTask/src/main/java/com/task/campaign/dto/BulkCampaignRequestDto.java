@@ -0,0 +1,29 @@
+package com.task.campaign.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//Pozycje są walidowane pojedynczo w serwisie, żeby błędna pozycja nie odrzucała całej paczki
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCampaignRequestDto {
+
+    @NotNull(message = "Seller's id required")
+    private Long sellerId;
+
+    @Size(max = 5000, message = "At most 5000 items per operation")
+    private List<CampaignRequestDto> create = new ArrayList<>();
+
+    @Size(max = 5000, message = "At most 5000 items per operation")
+    private List<BulkCampaignUpdateDto> update = new ArrayList<>();
+
+    @Size(max = 5000, message = "At most 5000 items per operation")
+    private List<Long> delete = new ArrayList<>();
+}
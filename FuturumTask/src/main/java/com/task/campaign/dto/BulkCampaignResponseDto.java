@@ -0,0 +1,16 @@
+package com.task.campaign.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCampaignResponseDto {
+    private List<BulkItemResultDto> results;
+    private BigDecimal sellerEmeraldBalanceAfterTransaction;
+}
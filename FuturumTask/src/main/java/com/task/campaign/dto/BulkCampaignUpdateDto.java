@@ -0,0 +1,13 @@
+package com.task.campaign.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCampaignUpdateDto {
+    private Long id;
+    private CampaignRequestDto campaign;
+}
@@ -0,0 +1,19 @@
+package com.task.campaign.dto;
+
+import com.task.campaign.enums.BulkItemStatus;
+import com.task.campaign.enums.BulkOperation;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkItemResultDto {
+    private BulkOperation operation;
+    //Pozycja w odpowiedniej liście żądania (create, update lub delete)
+    private int index;
+    private Long campaignId;
+    private BulkItemStatus status;
+    private String error;
+}
@@ -0,0 +1,19 @@
+package com.task.campaign.dto;
+
+import com.task.campaign.enums.CampaignStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CampaignFilterDto {
+    private CampaignStatus status;
+    private String town;
+    private Long sellerId;
+    private BigDecimal minBid;
+    private BigDecimal maxBid;
+}
@@ -0,0 +1,16 @@
+package com.task.campaign.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/// Znacznik stanu tabeli kampanii: liczba wierszy, największe id i suma wersji. Każdy zapis kampanii (także
+/// obciążenie wydatkami i pauza) podbija jej wersję, więc zmiana w tabeli zmienia znacznik.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CampaignHighWaterMarkDto {
+    private long count;
+    private long maxId;
+    private long versionSum;
+}
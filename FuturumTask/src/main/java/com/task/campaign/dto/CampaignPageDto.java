@@ -0,0 +1,16 @@
+package com.task.campaign.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CampaignPageDto {
+    private List<CampaignResponseDto> items;
+    //Id ostatniej kampanii na stronie - przekazywany jako "after" przy pobieraniu kolejnej strony, null gdy to ostatnia strona
+    private Long nextCursor;
+}
@@ -16,6 +16,7 @@ public class CampaignResponseDto {
     private String keywords;
     private BigDecimal bidAmount;
     private BigDecimal campaignFund;
+    private BigDecimal spentAmount;
     private CampaignStatus status;
     private String town;
     private Integer radius;
@@ -0,0 +1,21 @@
+package com.task.campaign.dto;
+
+import com.task.campaign.enums.ChangeEventType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeEventDto {
+    //Kolejny numer zdarzenia w strumieniu - wysyłany też jako id zdarzenia SSE (Last-Event-ID przy wznowieniu)
+    private long offset;
+    private ChangeEventType type;
+    private Long campaignId;
+    private Long sellerId;
+    //Stan kampanii po zmianie - tylko dla CAMPAIGN_CREATED i CAMPAIGN_UPDATED
+    private CampaignResponseDto campaign;
+    //Stan konta sprzedawcy - tylko dla SELLER_BALANCE_CHANGED
+    private SellerDto seller;
+}
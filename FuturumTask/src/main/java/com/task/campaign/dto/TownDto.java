@@ -0,0 +1,14 @@
+package com.task.campaign.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TownDto {
+    private String name;
+    private double latitude;
+    private double longitude;
+}
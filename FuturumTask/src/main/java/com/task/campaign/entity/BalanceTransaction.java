@@ -0,0 +1,45 @@
+package com.task.campaign.entity;
+
+import com.task.campaign.enums.BalanceTransactionType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+//Historia operacji na koncie Emerald - wpisy są tylko dopisywane, nigdy nie są modyfikowane
+@Data
+@Entity
+@Immutable
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "balance_transactions",
+        indexes = @Index(name = "idx_balance_transactions_seller", columnList = "seller_id, id"))
+public class BalanceTransaction {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "seller_id", nullable = false)
+    private Long sellerId;
+
+    private Long campaignId;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private BalanceTransactionType type;
+
+    //Ujemna kwota oznacza obciążenie konta, dodatnia - zwrot środków
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balanceAfter;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
@@ -1,6 +1,7 @@
 package com.task.campaign.entity;
 
 import com.task.campaign.enums.CampaignStatus;
+import com.task.config.sharding.ShardedSequence;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
@@ -8,18 +9,30 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
 
 @Data
 @Entity
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "campaigns")
+//Indeksy pod filtry listy kampanii i stronicowanie po id (seller_id, status, town) - bez pełnego skanu tabeli
+@Table(name = "campaigns", indexes = {
+        @Index(name = "idx_campaigns_seller", columnList = "seller_id, id"),
+        @Index(name = "idx_campaigns_status", columnList = "status, id"),
+        @Index(name = "idx_campaigns_town", columnList = "town, id")})
 public class Campaign {
+    //Sekwencja zamiast IDENTITY: Hibernate zna id przed INSERT-em, więc może wysyłać wstawienia paczkami.
+    //Przy shardach id koduje też shard kampanii
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @ShardedSequence(sequenceName = "campaigns_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -28,13 +41,28 @@ public class Campaign {
     @NotBlank
     private String keywords;
 
+    //Znormalizowana kopia pola keywords (małe litery, bez duplikatów) z indeksem po słowie kluczowym
+    @ElementCollection
+    @CollectionTable(name = "campaign_keywords",
+            joinColumns = @JoinColumn(name = "campaign_id"),
+            indexes = @Index(name = "idx_campaign_keywords_keyword", columnList = "keyword, campaign_id"))
+    @Column(name = "keyword", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Set<String> keywordSet = new HashSet<>();
+
     @NotNull
     @DecimalMin(value = "0.01", inclusive = true)
     private BigDecimal bidAmount;
 
+    //Pozostały fundusz - pomniejszany o wydatki silnika reklam
     @NotNull
     private BigDecimal campaignFund;
 
+    //Suma wydatków silnika reklam od utworzenia kampanii
+    @Column(nullable = false)
+    private BigDecimal spentAmount = BigDecimal.ZERO;
+
     @NotNull
     @Enumerated(EnumType.STRING)
     private CampaignStatus status;
@@ -45,9 +73,35 @@ public class Campaign {
     @Min(1)
     private Integer radius;
 
+    //Chroni przed równoległą edycją tej samej kampanii, która podwójnie rozliczyłaby zmianę funduszu
+    @Version
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "seller_id", nullable = false)
     private Seller seller;
 
+    public void setKeywords(String keywords) {
+        this.keywords = keywords;
+        Set<String> tokens = tokenizeKeywords(keywords);
+        if (!keywordSet.equals(tokens)) {
+            keywordSet.clear();
+            keywordSet.addAll(tokens);
+        }
+    }
 
+    /// Rozbija pole keywords ("laptops, Sale,laptops") na unikalne słowa zapisane małymi literami.
+    public static Set<String> tokenizeKeywords(String keywords) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (keywords == null) {
+            return tokens;
+        }
+        for (String keyword : keywords.split(",")) {
+            String token = keyword.trim().toLowerCase(Locale.ROOT);
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
 }
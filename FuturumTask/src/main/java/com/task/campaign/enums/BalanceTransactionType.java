@@ -0,0 +1,5 @@
+package com.task.campaign.enums;
+
+public enum BalanceTransactionType {
+    CAMPAIGN_CREATED, CAMPAIGN_FUND_INCREASED, CAMPAIGN_FUND_DECREASED, CAMPAIGN_DELETED, CAMPAIGN_BULK_CHANGE
+}
@@ -0,0 +1,5 @@
+package com.task.campaign.enums;
+
+public enum BulkItemStatus {
+    CREATED, UPDATED, DELETED, REJECTED
+}
@@ -0,0 +1,5 @@
+package com.task.campaign.enums;
+
+public enum CampaignChangeType {
+    CREATED, UPDATED, DELETED
+}
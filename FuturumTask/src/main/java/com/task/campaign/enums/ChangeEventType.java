@@ -0,0 +1,5 @@
+package com.task.campaign.enums;
+
+public enum ChangeEventType {
+    CAMPAIGN_CREATED, CAMPAIGN_UPDATED, CAMPAIGN_DELETED, SELLER_BALANCE_CHANGED
+}
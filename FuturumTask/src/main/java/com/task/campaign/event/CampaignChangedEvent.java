@@ -0,0 +1,18 @@
+package com.task.campaign.event;
+
+import com.task.campaign.dto.CampaignResponseDto;
+import com.task.campaign.enums.CampaignChangeType;
+import lombok.Value;
+
+/// Publikowany przez CampaignService w ramach transakcji zapisu; słuchacze reagują po commicie
+/// (@TransactionalEventListener), więc nigdy nie widzą zmian, które zostały wycofane.
+@Value
+public class CampaignChangedEvent {
+    CampaignChangeType type;
+    Long campaignId;
+    Long sellerId;
+    //Słowa kluczowe sprzed zmiany - null dla CREATED
+    String previousKeywords;
+    //Stan kampanii po zmianie - null dla DELETED
+    CampaignResponseDto campaign;
+}
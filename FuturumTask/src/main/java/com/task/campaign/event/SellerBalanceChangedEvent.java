@@ -0,0 +1,13 @@
+package com.task.campaign.event;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/// Publikowany przez BalanceLedgerService przy każdej zmianie salda, w ramach tej samej transakcji.
+@Value
+public class SellerBalanceChangedEvent {
+    Long sellerId;
+    String sellerName;
+    BigDecimal balanceAfter;
+}
@@ -0,0 +1,20 @@
+package com.task.campaign.repository;
+
+import com.task.campaign.entity.BalanceTransaction;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BalanceTransactionRepository extends JpaRepository<BalanceTransaction, Long> {
+
+    @Query("SELECT t FROM BalanceTransaction t " +
+            "WHERE t.sellerId = :sellerId AND (:beforeId IS NULL OR t.id < :beforeId) ORDER BY t.id DESC")
+    List<BalanceTransaction> findHistory(@Param("sellerId") Long sellerId,
+                                         @Param("beforeId") Long beforeId,
+                                         Limit limit);
+}
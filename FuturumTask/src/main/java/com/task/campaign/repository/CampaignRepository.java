@@ -1,9 +1,107 @@
 package com.task.campaign.repository;
 
+import com.task.campaign.dto.CampaignHighWaterMarkDto;
+import com.task.campaign.dto.CampaignResponseDto;
 import com.task.campaign.entity.Campaign;
+import com.task.campaign.enums.CampaignStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CampaignRepository extends JpaRepository<Campaign, Long> {
+
+    String RESPONSE_DTO_SELECT = "SELECT new com.task.campaign.dto.CampaignResponseDto(" +
+            "c.id, c.campaignName, c.keywords, c.bidAmount, c.campaignFund, c.spentAmount, c.status, c.town, c.radius, " +
+            "s.id, s.name, s.emeraldBalance) " +
+            "FROM Campaign c JOIN c.seller s ";
+
+    String FILTER_CONDITIONS = "(:status IS NULL OR c.status = :status) " +
+            "AND (:town IS NULL OR c.town = :town) " +
+            "AND (:sellerId IS NULL OR s.id = :sellerId) " +
+            "AND (:minBid IS NULL OR c.bidAmount >= :minBid) " +
+            "AND (:maxBid IS NULL OR c.bidAmount <= :maxBid)";
+
+    //Wołane poza transakcją serwisu - zapytania deklarowane w repozytorium nie mają domyślnej transakcji,
+    //a bez readOnly = true odczyt nie trafiłby do repliki
+    @Transactional(readOnly = true)
+    @Query(RESPONSE_DTO_SELECT + "WHERE c.id = :id")
+    Optional<CampaignResponseDto> findResponseDtoById(@Param("id") Long id);
+
+    @Query(RESPONSE_DTO_SELECT + "WHERE c.id IN :ids")
+    List<CampaignResponseDto> findResponseDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(RESPONSE_DTO_SELECT +
+            "WHERE (:afterId IS NULL OR c.id > :afterId) AND " + FILTER_CONDITIONS +
+            " ORDER BY c.id")
+    List<CampaignResponseDto> findPage(@Param("afterId") Long afterId,
+                                       @Param("status") CampaignStatus status,
+                                       @Param("town") String town,
+                                       @Param("sellerId") Long sellerId,
+                                       @Param("minBid") BigDecimal minBid,
+                                       @Param("maxBid") BigDecimal maxBid,
+                                       Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(RESPONSE_DTO_SELECT + "WHERE " + FILTER_CONDITIONS + " ORDER BY c.id")
+    Stream<CampaignResponseDto> streamFiltered(@Param("status") CampaignStatus status,
+                                               @Param("town") String town,
+                                               @Param("sellerId") Long sellerId,
+                                               @Param("minBid") BigDecimal minBid,
+                                               @Param("maxBid") BigDecimal maxBid);
+
+    @Query(RESPONSE_DTO_SELECT + "JOIN c.keywordSet k " +
+            "WHERE k = :keyword AND c.status = :status AND (:afterId IS NULL OR c.id > :afterId) " +
+            "ORDER BY c.id")
+    List<CampaignResponseDto> findPageByKeyword(@Param("keyword") String keyword,
+                                                @Param("status") CampaignStatus status,
+                                                @Param("afterId") Long afterId,
+                                                Limit limit);
+
+    //Wiersze [słowo kluczowe, liczba kampanii]
+    @Query("SELECT k, COUNT(c) FROM Campaign c JOIN c.keywordSet k GROUP BY k")
+    List<Object[]> countCampaignsPerKeyword();
+
+    //Jeden wiersz: liczba kampanii, największe id i suma wersji - zmienia się przy każdym zapisie kampanii
+    @Query("SELECT new com.task.campaign.dto.CampaignHighWaterMarkDto(COUNT(c), COALESCE(MAX(c.id), 0L), " +
+            "COALESCE(SUM(c.version), 0L)) FROM Campaign c")
+    CampaignHighWaterMarkDto findHighWaterMark();
+
+    @Query("SELECT c FROM Campaign c WHERE c.id > :afterId AND c.keywordSet IS EMPTY ORDER BY c.id")
+    List<Campaign> findWithoutKeywordSet(@Param("afterId") Long afterId, Limit limit);
+
+    //Zapis wydatków z silnika reklam; podbija wersję, żeby równoległa edycja kampanii nie nadpisała funduszu
+    @Modifying
+    @Query("UPDATE Campaign c SET c.campaignFund = c.campaignFund - :spent, c.spentAmount = c.spentAmount + :spent, " +
+            "c.version = c.version + 1 WHERE c.id = :id")
+    int chargeSpend(@Param("id") Long id, @Param("spent") BigDecimal spent);
+
+    //Kampanie, których fundusz nie pokrywa już jednej stawki - kolejne paczki stronicowane po id
+    @Query("SELECT c.id FROM Campaign c WHERE c.id > :afterId AND c.status = :status AND c.campaignFund < c.bidAmount " +
+            "ORDER BY c.id")
+    List<Long> findExhaustedIds(@Param("afterId") Long afterId, @Param("status") CampaignStatus status, Limit limit);
+
+    //Warunek powtórzony w UPDATE: kampania zasilona między odczytem id a zapisem nie zostanie wyłączona
+    @Modifying
+    @Query("UPDATE Campaign c SET c.status = :paused, c.version = c.version + 1 " +
+            "WHERE c.id IN :ids AND c.status = :active AND c.campaignFund < c.bidAmount")
+    int pauseExhausted(@Param("ids") Collection<Long> ids,
+                       @Param("active") CampaignStatus active,
+                       @Param("paused") CampaignStatus paused);
 }
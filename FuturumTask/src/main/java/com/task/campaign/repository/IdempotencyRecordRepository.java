@@ -0,0 +1,35 @@
+package com.task.campaign.repository;
+
+import com.task.campaign.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    //Zwykły INSERT zamiast save(): drugi wątek z tym samym kluczem czeka na blokadę wiersza,
+    //a po commicie pierwszego dostaje naruszenie klucza głównego zamiast cichego merge
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, request_hash, response_body, created_at) " +
+            "VALUES (:key, :requestHash, '', :createdAt)", nativeQuery = true)
+    void insertPending(@Param("key") String key,
+                       @Param("requestHash") String requestHash,
+                       @Param("createdAt") Instant createdAt);
+
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.responseBody = :responseBody WHERE r.key = :key")
+    void complete(@Param("key") String key, @Param("responseBody") String responseBody);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") Instant cutoff);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.key = :key AND r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("key") String key, @Param("cutoff") Instant cutoff);
+}
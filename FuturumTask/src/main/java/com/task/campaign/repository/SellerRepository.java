@@ -2,8 +2,23 @@ package com.task.campaign.repository;
 
 import com.task.campaign.entity.Seller;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+
 @Repository
 public interface SellerRepository extends JpaRepository<Seller, Long> {
+
+    //Warunkowe, atomowe obciążenie - zwraca 0, gdy sprzedawca nie ma wystarczających środków
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Seller s SET s.emeraldBalance = s.emeraldBalance - :amount " +
+            "WHERE s.id = :id AND s.emeraldBalance >= :amount")
+    int debitBalance(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Seller s SET s.emeraldBalance = s.emeraldBalance + :amount WHERE s.id = :id")
+    int creditBalance(@Param("id") Long id, @Param("amount") BigDecimal amount);
 }
@@ -0,0 +1,58 @@
+package com.task.campaign.service;
+
+import com.task.campaign.entity.BalanceTransaction;
+import com.task.campaign.entity.Seller;
+import com.task.campaign.enums.BalanceTransactionType;
+import com.task.campaign.event.SellerBalanceChangedEvent;
+import com.task.campaign.repository.BalanceTransactionRepository;
+import com.task.campaign.repository.SellerRepository;
+import com.task.exception.InsufficientFundsException;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/// Jedyne miejsce, które zmienia Seller.emeraldBalance. Saldo zmieniamy pojedynczym warunkowym UPDATE-em,
+/// więc równoległe operacje dla tego samego sprzedawcy nie gubią zmian ani nie schodzą poniżej zera.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceLedgerService {
+
+    private final SellerRepository sellerRepository;
+    private final BalanceTransactionRepository balanceTransactionRepository;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public BigDecimal debit(Seller seller, BigDecimal amount, Long campaignId, BalanceTransactionType type) {
+        if (sellerRepository.debitBalance(seller.getId(), amount) == 0) {
+            log.warn("Insufficient funds for seller ID: {}. Required: {}", seller.getId(), amount);
+            throw new InsufficientFundsException("Niewystarczające środki na koncie Emerald sprzedawcy: " + seller.getName());
+        }
+        return record(seller, amount.negate(), campaignId, type);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public BigDecimal credit(Seller seller, BigDecimal amount, Long campaignId, BalanceTransactionType type) {
+        sellerRepository.creditBalance(seller.getId(), amount);
+        return record(seller, amount, campaignId, type);
+    }
+
+    private BigDecimal record(Seller seller, BigDecimal amount, Long campaignId, BalanceTransactionType type) {
+        //UPDATE ominął kontekst persystencji; wiersz pozostaje zablokowany do końca transakcji, więc odczyt jest dokładny
+        entityManager.refresh(seller);
+        BigDecimal balanceAfter = seller.getEmeraldBalance();
+        balanceTransactionRepository.save(new BalanceTransaction(
+                null, seller.getId(), campaignId, type, amount, balanceAfter, Instant.now()));
+        log.info("Seller ID: {} balance changed by {} ({}), new balance: {}", seller.getId(), amount, type, balanceAfter);
+        eventPublisher.publishEvent(new SellerBalanceChangedEvent(seller.getId(), seller.getName(), balanceAfter));
+        return balanceAfter;
+    }
+}
@@ -0,0 +1,42 @@
+package com.task.campaign.service;
+
+import com.task.campaign.event.CampaignChangedEvent;
+import com.task.config.CacheConfig;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/// Każdy zapis kampanii zmienia też saldo sprzedawcy, więc po commicie usuwamy wpis kampanii, wpis jej
+/// sprzedawcy i listę sprzedawców. Unieważnienie przed commitem pozwoliłoby odczytowi wstawić stan, którego
+/// transakcja jeszcze nie zmieniła. Samo unieważnienie po commicie nie wystarcza: odczyt, który minął się
+/// z cache przed nim, mógłby wstawić stan sprzed zmiany - takie zapisy odrzuca TwoTierCache. Ono też rozsyła
+/// unieważnienie do lokalnego poziomu pozostałych węzłów.
+@Component
+@RequiredArgsConstructor
+public class CampaignCacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+    @TransactionalEventListener
+    public void onCampaignChanged(CampaignChangedEvent event) {
+        evict(CacheConfig.CAMPAIGNS, event.getCampaignId());
+        evict(CacheConfig.SELLERS, event.getSellerId());
+        Cache sellerList = cacheManager.getCache(CacheConfig.SELLER_LIST);
+        if (sellerList != null) {
+            sellerList.clear();
+        }
+    }
+
+    public void evictCampaign(Long campaignId) {
+        evict(CacheConfig.CAMPAIGNS, campaignId);
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+}
@@ -0,0 +1,587 @@
+package com.task.campaign.service;
+
+import com.task.campaign.dto.CampaignResponseDto;
+import com.task.campaign.entity.Campaign;
+import com.task.campaign.enums.CampaignChangeType;
+import com.task.campaign.enums.CampaignStatus;
+import com.task.campaign.event.CampaignChangedEvent;
+import com.task.campaign.repository.CampaignRepository;
+import com.task.config.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/// Kolumnowy snapshot aktywnych kampanii dla ścieżki odczytu. Kolumny to tablice prymitywów podzielone na porcje
+/// po CHUNK_SIZE wierszy: id, stawka i fundusz w groszach (long), miasto i słowa kluczowe jako kody ze słowników
+/// (int), a to, czy wiersz jest aktualny, zapisuje bitset. Zmiana kampanii dopisuje nowy wiersz na końcu i gasi bit
+/// poprzedniej wersji. Dopisanie niczego nie kopiuje - czytelnicy widzą tylko wiersze poniżej opublikowanej liczby
+/// wierszy - a zgaszenie kopiuje jedynie bitset jednej porcji. Gdy nieaktualnych wierszy jest więcej niż aktualnych,
+/// porcje są budowane od nowa. Zapytania nie alokują: wynik trafia do tablicy przekazanej przez wywołującego.
+/// Kolumny można zapisać do pliku snapshotu i odtworzyć z niego przy starcie (CampaignSnapshotService).
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CampaignColumnStore {
+
+    static final int CHUNK_SHIFT = 10;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int NO_TOWN = -1;
+    private static final int[] NO_KEYWORDS = new int[0];
+
+    private final CampaignRepository campaignRepository;
+    private final ShardRouter shardRouter;
+
+    //Słowniki tylko rosną - nadany kod nie zmienia znaczenia, więc czytelnicy nie potrzebują blokady
+    private final Map<String, Integer> keywordCodes = new ConcurrentHashMap<>();
+    private final Map<String, Integer> townCodes = new ConcurrentHashMap<>();
+
+    //Stan pisarza, zmieniany wyłącznie pod blokadą
+    private final LongIntMap rowByCampaign = new LongIntMap();
+    private Chunk[] chunks = new Chunk[16];
+    private int rowCount;
+
+    private volatile Snapshot snapshot = new Snapshot(chunks, 0, 0);
+    private volatile boolean loaded;
+    //Kampanie zmienione przez zdarzenia w trakcie uzgadniania z bazą - uzgadnianie ich nie nadpisuje
+    private LongIntMap changedDuringCatchUp;
+
+    /// Czy snapshot zawiera już wszystkie aktywne kampanie z bazy.
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public int activeCount() {
+        return snapshot.activeCount();
+    }
+
+    /// Wpisuje do ids, rosnąco, najmniejsze id większe od afterId spośród aktywnych kampanii ze słowem kluczowym
+    /// (i miastem, gdy town nie jest null; kampanie bez miasta go wtedy nie spełniają). Słowo i miasto muszą być
+    /// zapisane małymi literami. Zwraca liczbę wpisanych id - najwyżej ids.length.
+    public int findActive(String keyword, String town, long afterId, long[] ids) {
+        Integer keywordCode = keywordCodes.get(keyword);
+        if (keywordCode == null || ids.length == 0) {
+            return 0;
+        }
+        int townCode = NO_TOWN;
+        if (town != null) {
+            Integer code = townCodes.get(town);
+            if (code == null) {
+                return 0;
+            }
+            townCode = code;
+        }
+        Snapshot current = snapshot;
+        int found = 0;
+        for (int base = 0; base < current.rowCount(); base += CHUNK_SIZE) {
+            Chunk chunk = current.chunks()[base >>> CHUNK_SHIFT];
+            //Porcje bez id z przedziału strony pomijamy w całości - wiersze dopisywane są zwykle rosnąco po id
+            if (chunk.maxId <= afterId || (found == ids.length && chunk.minId >= ids[found - 1])) {
+                continue;
+            }
+            found = scanChunk(chunk, Math.min(CHUNK_SIZE, current.rowCount() - base),
+                    keywordCode, townCode, afterId, ids, found);
+        }
+        return found;
+    }
+
+    private static int scanChunk(Chunk chunk, int rows, int keywordCode, int townCode, long afterId,
+                                 long[] ids, int found) {
+        int[] keywords = chunk.keywordCodes;
+        int[] keywordStart = chunk.keywordStart;
+        long[] active = chunk.activeBits;
+        for (int word = 0; word << 6 < rows; word++) {
+            long bits = active[word];
+            int remaining = rows - (word << 6);
+            if (remaining < 64) {
+                //Bity wierszy dopisanych po publikacji snapshotu nie są jeszcze widoczne
+                bits &= (1L << remaining) - 1;
+            }
+            while (bits != 0) {
+                int row = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                long id = chunk.ids[row];
+                if (id <= afterId || (found == ids.length && id >= ids[found - 1])) {
+                    continue;
+                }
+                if (townCode != NO_TOWN && chunk.townCodes[row] != townCode) {
+                    continue;
+                }
+                if (contains(keywords, keywordStart[row], keywordStart[row + 1], keywordCode)) {
+                    found = insertSorted(ids, found, id);
+                }
+            }
+        }
+        return found;
+    }
+
+    private static boolean contains(int[] values, int from, int to, int value) {
+        for (int i = from; i < to; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //Wstawia id do posortowanego prefiksu ids; przy pełnej tablicy wypada największe
+    private static int insertSorted(long[] ids, int found, long id) {
+        int position = found == ids.length ? found - 1 : found;
+        while (position > 0 && ids[position - 1] > id) {
+            ids[position] = ids[position - 1];
+            position--;
+        }
+        ids[position] = id;
+        return found == ids.length ? found : found + 1;
+    }
+
+    /// Przybliżony rozmiar kolumn i mapy id -> wiersz w bajtach (bez słowników).
+    public synchronized long footprintBytes() {
+        long bytes = rowByCampaign.footprintBytes() + 8L * chunks.length;
+        for (int i = 0; i < chunkCount(rowCount); i++) {
+            bytes += chunks[i].footprintBytes();
+        }
+        return bytes;
+    }
+
+    /// Pełne wczytanie z bazy przy starcie bez (aktualnego) pliku snapshotu - wywołuje CampaignSnapshotService.
+    @Transactional(readOnly = true)
+    public synchronized void loadActiveCampaigns() {
+        shardRouter.forEachShard(true, shard -> {
+            try (Stream<CampaignResponseDto> campaigns =
+                         campaignRepository.streamFiltered(CampaignStatus.ON, null, null, null, null)) {
+                campaigns.forEach(this::upsert);
+            }
+        });
+        publish();
+        loaded = true;
+        log.info("Column store loaded {} active campaigns ({} KB, {} keywords, {} towns)",
+                rowByCampaign.size(), footprintBytes() / 1024, keywordCodes.size(), townCodes.size());
+    }
+
+    /// Zapisuje aktualne wiersze (bez zgaszonych) wraz ze słownikami kodów.
+    synchronized void writeTo(SnapshotOutput out) throws IOException {
+        writeDictionary(out, keywordCodes);
+        writeDictionary(out, townCodes);
+        out.writeInt(rowByCampaign.size());
+        Chunk packed = new Chunk();
+        int packedRows = 0;
+        for (int row = 0; row < rowCount; row++) {
+            Chunk chunk = chunks[row >>> CHUNK_SHIFT];
+            int offset = row & (CHUNK_SIZE - 1);
+            if ((chunk.activeBits[offset >>> 6] & (1L << offset)) == 0) {
+                continue;
+            }
+            packed.ids[packedRows] = chunk.ids[offset];
+            packed.bidMinor[packedRows] = chunk.bidMinor[offset];
+            packed.fundMinor[packedRows] = chunk.fundMinor[offset];
+            packed.sellerIds[packedRows] = chunk.sellerIds[offset];
+            packed.townCodes[packedRows] = chunk.townCodes[offset];
+            packed.radii[packedRows] = chunk.radii[offset];
+            int from = chunk.keywordStart[offset];
+            int to = chunk.keywordStart[offset + 1];
+            int start = packed.keywordStart[packedRows];
+            if (start + to - from > packed.keywordCodes.length) {
+                packed.keywordCodes = Arrays.copyOf(packed.keywordCodes,
+                        Math.max(start + to - from, 2 * packed.keywordCodes.length));
+            }
+            System.arraycopy(chunk.keywordCodes, from, packed.keywordCodes, start, to - from);
+            packed.keywordStart[++packedRows] = start + to - from;
+            if (packedRows == CHUNK_SIZE) {
+                writeChunk(out, packed, packedRows);
+                packedRows = 0;
+            }
+        }
+        if (packedRows > 0) {
+            writeChunk(out, packed, packedRows);
+        }
+    }
+
+    private static void writeDictionary(SnapshotOutput out, Map<String, Integer> codes) throws IOException {
+        String[] values = new String[codes.size()];
+        codes.forEach((value, code) -> values[code] = value);
+        out.writeInt(values.length);
+        for (String value : values) {
+            out.writeString(value);
+        }
+    }
+
+    //Porcja w pliku: kolumny kolejno, przesunięcia słów kluczowych względem początku porcji
+    private static void writeChunk(SnapshotOutput out, Chunk chunk, int rows) throws IOException {
+        out.writeLongs(chunk.ids, 0, rows);
+        out.writeLongs(chunk.bidMinor, 0, rows);
+        out.writeLongs(chunk.fundMinor, 0, rows);
+        out.writeLongs(chunk.sellerIds, 0, rows);
+        out.writeInts(chunk.townCodes, 0, rows);
+        out.writeInts(chunk.radii, 0, rows);
+        out.writeInts(chunk.keywordStart, 0, rows + 1);
+        out.writeInts(chunk.keywordCodes, 0, chunk.keywordStart[rows]);
+    }
+
+    /// Odtwarza kolumny zapisane przez writeTo - wyłącznie w pustym magazynie, przed pierwszym wczytaniem. Porcje są
+    /// kopiowane z pliku hurtowo; przy błędzie formatu magazyn zostaje pusty.
+    synchronized void restore(SnapshotInput in) {
+        if (loaded || rowCount > 0) {
+            throw new IllegalStateException("Column store is already loaded");
+        }
+        String[] keywords = readDictionary(in);
+        String[] towns = readDictionary(in);
+        int rows = in.readCount(1);
+        Chunk[] restored = new Chunk[Math.max(16, Integer.highestOneBit(Math.max(1, chunkCount(rows))) * 2)];
+        for (int base = 0; base < rows; base += CHUNK_SIZE) {
+            restored[base >>> CHUNK_SHIFT] = readChunk(in, Math.min(CHUNK_SIZE, rows - base), keywords.length, towns.length);
+        }
+        rowByCampaign.ensureCapacity(rows);
+        for (int row = 0; row < rows; row++) {
+            rowByCampaign.put(restored[row >>> CHUNK_SHIFT].ids[row & (CHUNK_SIZE - 1)], row);
+        }
+        if (rowByCampaign.size() != rows) {
+            rowByCampaign.clear();
+            throw new IllegalStateException("Duplicate campaign ids in snapshot");
+        }
+        for (int code = 0; code < keywords.length; code++) {
+            keywordCodes.put(keywords[code], code);
+        }
+        for (int code = 0; code < towns.length; code++) {
+            townCodes.put(towns[code], code);
+        }
+        chunks = restored;
+        rowCount = rows;
+        publish();
+        loaded = true;
+    }
+
+    private static String[] readDictionary(SnapshotInput in) {
+        String[] values = new String[in.readCount(Integer.BYTES)];
+        for (int code = 0; code < values.length; code++) {
+            values[code] = in.readString();
+        }
+        return values;
+    }
+
+    private static Chunk readChunk(SnapshotInput in, int rows, int keywordCount, int townCount) {
+        Chunk chunk = new Chunk();
+        in.readLongs(chunk.ids, rows);
+        in.readLongs(chunk.bidMinor, rows);
+        in.readLongs(chunk.fundMinor, rows);
+        in.readLongs(chunk.sellerIds, rows);
+        in.readInts(chunk.townCodes, rows);
+        in.readInts(chunk.radii, rows);
+        in.readInts(chunk.keywordStart, rows + 1);
+        int codeCount = chunk.keywordStart[rows];
+        if (chunk.keywordStart[0] != 0 || codeCount < 0) {
+            throw new IllegalStateException("Invalid keyword offsets in snapshot");
+        }
+        int[] codes = new int[codeCount];
+        in.readInts(codes, codeCount);
+        for (int row = 0; row < rows; row++) {
+            if (chunk.ids[row] <= 0 || chunk.townCodes[row] < NO_TOWN || chunk.townCodes[row] >= townCount
+                    || chunk.keywordStart[row + 1] < chunk.keywordStart[row]) {
+                throw new IllegalStateException("Invalid row in snapshot: campaign " + chunk.ids[row]);
+            }
+            chunk.minId = Math.min(chunk.minId, chunk.ids[row]);
+            chunk.maxId = Math.max(chunk.maxId, chunk.ids[row]);
+        }
+        for (int code : codes) {
+            if (code < 0 || code >= keywordCount) {
+                throw new IllegalStateException("Invalid keyword code in snapshot: " + code);
+            }
+        }
+        chunk.keywordCodes = codes;
+        for (int row = 0; row < rows; row += 64) {
+            int remaining = rows - row;
+            chunk.activeBits[row >>> 6] = remaining >= 64 ? -1L : (1L << remaining) - 1;
+        }
+        return chunk;
+    }
+
+    /// Uzgadnia kolumny odtworzone ze starszego snapshotu z bazą, porcjami po batchSize kampanii w kolejności id.
+    /// Dla każdego przedziału id dopisuje kampanie zmienione od zapisu snapshotu i gasi te, których w bazie już nie
+    /// ma lub nie są aktywne. Odczyty przez cały czas korzystają z kolumn; kampanii zmienionych w tym czasie przez
+    /// zdarzenia uzgadnianie nie nadpisuje, bo zdarzenie niesie stan co najmniej tak nowy jak odczytana porcja.
+    public void catchUp(int batchSize) {
+        long[] restoredIds;
+        synchronized (this) {
+            restoredIds = activeIds();
+            changedDuringCatchUp = new LongIntMap();
+        }
+        try {
+            for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                catchUpShard(shard, restoredIds, batchSize);
+            }
+        } finally {
+            synchronized (this) {
+                changedDuringCatchUp = null;
+            }
+        }
+    }
+
+    private void catchUpShard(int shard, long[] restoredIds, int batchSize) {
+        int next = 0;
+        long afterId = 0;
+        while (afterId != Long.MAX_VALUE) {
+            long from = afterId;
+            List<CampaignResponseDto> batch = shardRouter.callOnShard(shard, true, () -> campaignRepository.findPage(
+                    from, CampaignStatus.ON, null, null, null, null, Limit.of(batchSize)));
+            //Ostatnia porcja obejmuje również wszystkie id powyżej ostatniej kampanii z bazy
+            long upTo = batch.size() < batchSize ? Long.MAX_VALUE : batch.get(batch.size() - 1).getId();
+            synchronized (this) {
+                int inBatch = 0;
+                for (; next < restoredIds.length && restoredIds[next] <= upTo; next++) {
+                    long id = restoredIds[next];
+                    if (shardRouter.shardOfCampaign(id) != shard) {
+                        continue;
+                    }
+                    while (inBatch < batch.size() && batch.get(inBatch).getId() < id) {
+                        inBatch++;
+                    }
+                    boolean stillActive = inBatch < batch.size() && batch.get(inBatch).getId() == id;
+                    if (!stillActive && changedDuringCatchUp.get(id) == LongIntMap.MISSING) {
+                        retire(id);
+                    }
+                }
+                for (CampaignResponseDto campaign : batch) {
+                    if (changedDuringCatchUp.get(campaign.getId()) == LongIntMap.MISSING) {
+                        upsertIfChanged(campaign);
+                    }
+                }
+                compactIfSparse();
+                publish();
+            }
+            afterId = upTo;
+        }
+    }
+
+    //Id aktualnych wierszy, rosnąco
+    private long[] activeIds() {
+        long[] ids = new long[rowByCampaign.size()];
+        int count = 0;
+        for (int row = 0; row < rowCount; row++) {
+            Chunk chunk = chunks[row >>> CHUNK_SHIFT];
+            int offset = row & (CHUNK_SIZE - 1);
+            if ((chunk.activeBits[offset >>> 6] & (1L << offset)) != 0) {
+                ids[count++] = chunk.ids[offset];
+            }
+        }
+        Arrays.sort(ids, 0, count);
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+
+    @TransactionalEventListener
+    public synchronized void onCampaignChanged(CampaignChangedEvent event) {
+        if (changedDuringCatchUp != null) {
+            changedDuringCatchUp.put(event.getCampaignId(), 0);
+        }
+        retire(event.getCampaignId());
+        CampaignResponseDto campaign = event.getCampaign();
+        if (event.getType() != CampaignChangeType.DELETED && campaign.getStatus() == CampaignStatus.ON) {
+            append(campaign);
+        }
+        compactIfSparse();
+        publish();
+    }
+
+    private void upsert(CampaignResponseDto campaign) {
+        retire(campaign.getId());
+        append(campaign);
+    }
+
+    //Przy uzgadnianiu z bazą większość kampanii się nie zmieniła - te zostają w swoich wierszach
+    private void upsertIfChanged(CampaignResponseDto campaign) {
+        int row = rowByCampaign.get(campaign.getId());
+        if (row != LongIntMap.MISSING) {
+            Chunk chunk = chunks[row >>> CHUNK_SHIFT];
+            int offset = row & (CHUNK_SIZE - 1);
+            int[] codes = keywordCodes(campaign.getKeywords());
+            if (chunk.bidMinor[offset] == toMinorUnits(campaign.getBidAmount())
+                    && chunk.fundMinor[offset] == toMinorUnits(campaign.getCampaignFund())
+                    && chunk.sellerIds[offset] == sellerId(campaign)
+                    && chunk.townCodes[offset] == townCode(campaign.getTown())
+                    && chunk.radii[offset] == radius(campaign)
+                    && Arrays.equals(chunk.keywordCodes, chunk.keywordStart[offset], chunk.keywordStart[offset + 1],
+                    codes, 0, codes.length)) {
+                return;
+            }
+        }
+        upsert(campaign);
+    }
+
+    private void append(CampaignResponseDto campaign) {
+        int[] codes = keywordCodes(campaign.getKeywords());
+        appendRow(campaign.getId(), toMinorUnits(campaign.getBidAmount()), toMinorUnits(campaign.getCampaignFund()),
+                sellerId(campaign), townCode(campaign.getTown()), radius(campaign), codes, 0, codes.length);
+    }
+
+    private int[] keywordCodes(String keywordList) {
+        Set<String> keywords = Campaign.tokenizeKeywords(keywordList);
+        int[] codes = new int[keywords.size()];
+        int i = 0;
+        for (String keyword : keywords) {
+            codes[i++] = keywordCodes.computeIfAbsent(keyword, k -> keywordCodes.size());
+        }
+        return codes;
+    }
+
+    private int townCode(String town) {
+        return town == null || town.isBlank() ? NO_TOWN
+                : townCodes.computeIfAbsent(town.trim().toLowerCase(Locale.ROOT), t -> townCodes.size());
+    }
+
+    private static long sellerId(CampaignResponseDto campaign) {
+        return campaign.getSellerId() == null ? 0 : campaign.getSellerId();
+    }
+
+    private static int radius(CampaignResponseDto campaign) {
+        return campaign.getRadius() == null ? 0 : campaign.getRadius();
+    }
+
+    private void appendRow(long id, long bidMinor, long fundMinor, long sellerId, int townCode, int radius,
+                           int[] keywords, int keywordsFrom, int keywordsTo) {
+        int row = rowCount & (CHUNK_SIZE - 1);
+        int chunkIndex = rowCount >>> CHUNK_SHIFT;
+        if (row == 0) {
+            if (chunkIndex == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunks.length * 2);
+            }
+            chunks[chunkIndex] = new Chunk();
+        }
+        Chunk chunk = chunks[chunkIndex];
+        chunk.ids[row] = id;
+        chunk.bidMinor[row] = bidMinor;
+        chunk.fundMinor[row] = fundMinor;
+        chunk.sellerIds[row] = sellerId;
+        chunk.townCodes[row] = townCode;
+        chunk.radii[row] = radius;
+        int start = chunk.keywordStart[row];
+        int end = start + keywordsTo - keywordsFrom;
+        int[] codes = chunk.keywordCodes;
+        if (end > codes.length) {
+            //Nowa tablica zawiera wszystkie dotychczasowe kody, więc czytelnicy mogą dostać starą albo nową
+            codes = Arrays.copyOf(codes, Math.max(end, codes.length * 2));
+        }
+        System.arraycopy(keywords, keywordsFrom, codes, start, keywordsTo - keywordsFrom);
+        chunk.keywordCodes = codes;
+        chunk.keywordStart[row + 1] = end;
+        chunk.activeBits[row >>> 6] |= 1L << row;
+        chunk.minId = Math.min(chunk.minId, id);
+        chunk.maxId = Math.max(chunk.maxId, id);
+        rowByCampaign.put(id, rowCount);
+        rowCount++;
+    }
+
+    //Gasi bit poprzedniej wersji kampanii na kopii bitsetu porcji, bo opublikowany snapshot musi zostać niezmienny
+    private void retire(long campaignId) {
+        int row = rowByCampaign.remove(campaignId);
+        if (row == LongIntMap.MISSING) {
+            return;
+        }
+        int chunkIndex = row >>> CHUNK_SHIFT;
+        int offset = row & (CHUNK_SIZE - 1);
+        Chunk chunk = chunks[chunkIndex];
+        long[] activeBits = chunk.activeBits.clone();
+        activeBits[offset >>> 6] &= ~(1L << offset);
+        chunks = chunks.clone();
+        chunks[chunkIndex] = chunk.withActiveBits(activeBits);
+    }
+
+    private void compactIfSparse() {
+        if (rowCount - rowByCampaign.size() > Math.max(CHUNK_SIZE, rowByCampaign.size())) {
+            compact();
+        }
+    }
+
+    //Przepisuje aktualne wiersze do nowych porcji, zachowując ich kolejność
+    private void compact() {
+        Chunk[] previous = chunks;
+        int previousRows = rowCount;
+        chunks = new Chunk[Math.max(16, Integer.highestOneBit(Math.max(1, chunkCount(rowByCampaign.size()))) * 2)];
+        rowCount = 0;
+        rowByCampaign.clear();
+        for (int row = 0; row < previousRows; row++) {
+            Chunk chunk = previous[row >>> CHUNK_SHIFT];
+            int offset = row & (CHUNK_SIZE - 1);
+            if ((chunk.activeBits[offset >>> 6] & (1L << offset)) != 0) {
+                appendRow(chunk.ids[offset], chunk.bidMinor[offset], chunk.fundMinor[offset], chunk.sellerIds[offset],
+                        chunk.townCodes[offset], chunk.radii[offset],
+                        chunk.keywordCodes, chunk.keywordStart[offset], chunk.keywordStart[offset + 1]);
+            }
+        }
+        log.debug("Column store compacted from {} to {} rows", previousRows, rowCount);
+    }
+
+    private void publish() {
+        snapshot = new Snapshot(chunks, rowCount, rowByCampaign.size());
+    }
+
+    private static int chunkCount(int rows) {
+        return (rows + CHUNK_SIZE - 1) >>> CHUNK_SHIFT;
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.DOWN).unscaledValue().longValueExact();
+    }
+
+    private record Snapshot(Chunk[] chunks, int rowCount, int activeCount) {
+    }
+
+    //Tablice porcji są współdzielone przez kolejne wersje: pisarz zmienia w nich tylko wiersze, których żaden
+    //opublikowany snapshot jeszcze nie obejmuje. Pola volatile zmienia pisarz przy dopisywaniu wiersza.
+    private static final class Chunk {
+        private final long[] ids;
+        private final long[] bidMinor;
+        private final long[] fundMinor;
+        private final long[] sellerIds;
+        private final int[] townCodes;
+        private final int[] radii;
+        //Słowa kluczowe wiersza r to keywordCodes[keywordStart[r]..keywordStart[r + 1])
+        private final int[] keywordStart;
+        private final long[] activeBits;
+        private volatile int[] keywordCodes;
+        private volatile long minId;
+        private volatile long maxId;
+
+        private Chunk() {
+            this(new long[CHUNK_SIZE], new long[CHUNK_SIZE], new long[CHUNK_SIZE], new long[CHUNK_SIZE],
+                    new int[CHUNK_SIZE], new int[CHUNK_SIZE], new int[CHUNK_SIZE + 1], new long[CHUNK_SIZE / 64],
+                    NO_KEYWORDS, Long.MAX_VALUE, Long.MIN_VALUE);
+        }
+
+        private Chunk(long[] ids, long[] bidMinor, long[] fundMinor, long[] sellerIds, int[] townCodes, int[] radii,
+                      int[] keywordStart, long[] activeBits, int[] keywordCodes, long minId, long maxId) {
+            this.ids = ids;
+            this.bidMinor = bidMinor;
+            this.fundMinor = fundMinor;
+            this.sellerIds = sellerIds;
+            this.townCodes = townCodes;
+            this.radii = radii;
+            this.keywordStart = keywordStart;
+            this.activeBits = activeBits;
+            this.keywordCodes = keywordCodes;
+            this.minId = minId;
+            this.maxId = maxId;
+        }
+
+        private Chunk withActiveBits(long[] bits) {
+            return new Chunk(ids, bidMinor, fundMinor, sellerIds, townCodes, radii, keywordStart, bits,
+                    keywordCodes, minId, maxId);
+        }
+
+        private long footprintBytes() {
+            return 8L * (ids.length + bidMinor.length + fundMinor.length + sellerIds.length + activeBits.length)
+                    + 4L * (townCodes.length + radii.length + keywordStart.length + keywordCodes.length);
+        }
+    }
+}
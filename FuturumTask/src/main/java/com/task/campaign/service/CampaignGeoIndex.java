@@ -0,0 +1,269 @@
+package com.task.campaign.service;
+
+import com.task.campaign.dto.CampaignResponseDto;
+import com.task.campaign.dto.TownDto;
+import com.task.campaign.enums.CampaignChangeType;
+import com.task.campaign.enums.CampaignStatus;
+import com.task.campaign.event.CampaignChangedEvent;
+import com.task.campaign.repository.CampaignRepository;
+import com.task.config.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/// Indeks przestrzenny aktywnych kampanii. Środkiem kampanii jest zawsze jedno z miast, więc kampanie grupujemy
+/// po mieście i sortujemy malejąco po promieniu: kampanie obejmujące punkt odległy o d km to prefiks tablicy,
+/// znajdowany wyszukiwaniem binarnym. Miasta są posortowane po szerokości geograficznej, więc sprawdzamy
+/// tylko pas o szerokości największego promienia.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CampaignGeoIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE_OF_LATITUDE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    private final CampaignRepository campaignRepository;
+    private final TownService townService;
+    private final ShardRouter shardRouter;
+
+    //Stan modyfikowany wyłącznie pod blokadą; czytelnicy widzą tylko niezmienny snapshot
+    private final Map<Long, String> townByCampaign = new HashMap<>();
+    private final Map<String, TownCampaigns> campaignsByTown = new HashMap<>();
+    private volatile GeoSnapshot snapshot = new GeoSnapshot(new TownCampaigns[0], 0);
+
+    /// Id kampanii, których obszar obejmuje punkt - najpierw z najbliższych miast.
+    public long[] findCovering(double latitude, double longitude, int limit) {
+        GeoSnapshot current = snapshot;
+        TownCampaigns[] towns = current.townsByLatitude();
+        double band = current.maxRadiusKm() / KM_PER_DEGREE_OF_LATITUDE;
+
+        int first = firstTownFromLatitude(towns, latitude - band);
+        List<double[]> hits = new ArrayList<>();
+        for (int i = first; i < towns.length && towns[i].latitude() <= latitude + band; i++) {
+            TownCampaigns town = towns[i];
+            double distance = distanceKm(latitude, longitude, town.latitude(), town.longitude());
+            int covering = countRadiiAtLeast(town.radii(), distance);
+            if (covering > 0) {
+                hits.add(new double[]{distance, i, covering});
+            }
+        }
+        hits.sort(Comparator.comparingDouble(hit -> hit[0]));
+
+        long[] result = new long[limit];
+        int found = 0;
+        for (double[] hit : hits) {
+            TownCampaigns town = towns[(int) hit[1]];
+            int count = Math.min((int) hit[2], limit - found);
+            System.arraycopy(town.campaignIds(), 0, result, found, count);
+            found += count;
+            if (found == limit) {
+                break;
+            }
+        }
+        return Arrays.copyOf(result, found);
+    }
+
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void loadActiveCampaigns() {
+        Map<String, List<long[]>> entries = new HashMap<>();
+        shardRouter.forEachShard(true, shard -> {
+            try (Stream<CampaignResponseDto> campaigns =
+                         campaignRepository.streamFiltered(CampaignStatus.ON, null, null, null, null)) {
+                campaigns.forEach(campaign -> townService.findTown(campaign.getTown()).ifPresent(town -> {
+                    entries.computeIfAbsent(town.getName(), name -> new ArrayList<>())
+                            .add(new long[]{campaign.getId(), campaign.getRadius()});
+                    townByCampaign.put(campaign.getId(), town.getName());
+                }));
+            }
+        });
+        entries.forEach((name, campaigns) -> {
+            campaigns.sort(Comparator.comparingLong((long[] entry) -> entry[1]).reversed());
+            long[] ids = campaigns.stream().mapToLong(entry -> entry[0]).toArray();
+            int[] radii = campaigns.stream().mapToInt(entry -> (int) entry[1]).toArray();
+            TownDto town = townService.findTown(name).orElseThrow();
+            campaignsByTown.put(name, new TownCampaigns(town.getLatitude(), town.getLongitude(), ids, radii));
+        });
+        publishSnapshot();
+        log.info("Geo index loaded {} active campaigns in {} towns", townByCampaign.size(), campaignsByTown.size());
+    }
+
+    /// Zmiany z jednej transakcji są zbierane i nakładane razem po jej commicie: każde zmienione miasto jest
+    /// przebudowywane raz, a snapshot publikowany raz na transakcję, a nie na każdą kampanię (np. w paczce bulk).
+    /// Jak przy @TransactionalEventListener zdarzenia spoza transakcji są pomijane, a wycofane nie trafiają do indeksu.
+    @EventListener
+    public void onCampaignChanged(CampaignChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        //Szukamy wśród synchronizacji bieżącej transakcji - transakcja zagnieżdżona (REQUIRES_NEW) ma własne
+        PendingChanges pending = TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(PendingChanges.class::isInstance)
+                .map(PendingChanges.class::cast)
+                .findFirst()
+                .orElseGet(() -> {
+                    PendingChanges created = new PendingChanges();
+                    TransactionSynchronizationManager.registerSynchronization(created);
+                    return created;
+                });
+        pending.events.add(event);
+    }
+
+    private synchronized void applyChanges(List<CampaignChangedEvent> events) {
+        //Tylko ostatni stan każdej kampanii z transakcji: miasto i promień albo null, gdy wypada z indeksu
+        Map<Long, Optional<Map.Entry<TownDto, Integer>>> finalState = new LinkedHashMap<>();
+        for (CampaignChangedEvent event : events) {
+            CampaignResponseDto campaign = event.getCampaign();
+            Optional<Map.Entry<TownDto, Integer>> entry = Optional.empty();
+            if (event.getType() != CampaignChangeType.DELETED && campaign.getStatus() == CampaignStatus.ON) {
+                entry = townService.findTown(campaign.getTown()).map(town -> Map.entry(town, campaign.getRadius()));
+            }
+            finalState.put(event.getCampaignId(), entry);
+        }
+
+        Map<String, Set<Long>> removedByTown = new HashMap<>();
+        Map<String, List<long[]>> addedByTown = new HashMap<>();
+        Map<String, TownDto> touchedTowns = new HashMap<>();
+        finalState.forEach((campaignId, entry) -> {
+            String previousTown = townByCampaign.remove(campaignId);
+            if (previousTown != null) {
+                removedByTown.computeIfAbsent(previousTown, name -> new HashSet<>()).add(campaignId);
+                touchedTowns.putIfAbsent(previousTown, null);
+            }
+            entry.ifPresent(found -> {
+                String name = found.getKey().getName();
+                townByCampaign.put(campaignId, name);
+                addedByTown.computeIfAbsent(name, key -> new ArrayList<>()).add(new long[]{campaignId, found.getValue()});
+                touchedTowns.put(name, found.getKey());
+            });
+        });
+
+        touchedTowns.forEach((name, found) -> {
+            TownCampaigns existing = campaignsByTown.get(name);
+            if (existing == null) {
+                existing = new TownCampaigns(found.getLatitude(), found.getLongitude(), new long[0], new int[0]);
+            }
+            TownCampaigns rebuilt = existing.rebuild(removedByTown.getOrDefault(name, Set.of()),
+                    addedByTown.getOrDefault(name, List.of()));
+            if (rebuilt == null) {
+                campaignsByTown.remove(name);
+            } else {
+                campaignsByTown.put(name, rebuilt);
+            }
+        });
+        publishSnapshot();
+    }
+
+    private void publishSnapshot() {
+        TownCampaigns[] towns = campaignsByTown.values().stream()
+                .sorted(Comparator.comparingDouble(TownCampaigns::latitude))
+                .toArray(TownCampaigns[]::new);
+        int maxRadius = Arrays.stream(towns).mapToInt(TownCampaigns::maxRadius).max().orElse(0);
+        snapshot = new GeoSnapshot(towns, maxRadius);
+    }
+
+    private static int firstTownFromLatitude(TownCampaigns[] towns, double latitude) {
+        int lo = 0;
+        int hi = towns.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (towns[mid].latitude() < latitude) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int countRadiiAtLeast(int[] radiiDescending, double distance) {
+        int lo = 0;
+        int hi = radiiDescending.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (radiiDescending[mid] >= distance) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double deltaLatitude = Math.toRadians(latitude2 - latitude1);
+        double deltaLongitude = Math.toRadians(longitude2 - longitude1);
+        double a = Math.sin(deltaLatitude / 2) * Math.sin(deltaLatitude / 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2))
+                * Math.sin(deltaLongitude / 2) * Math.sin(deltaLongitude / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private final class PendingChanges implements TransactionSynchronization {
+        private final List<CampaignChangedEvent> events = new ArrayList<>();
+
+        @Override
+        public void afterCommit() {
+            applyChanges(events);
+        }
+    }
+
+    private record GeoSnapshot(TownCampaigns[] townsByLatitude, int maxRadiusKm) {
+    }
+
+    private record TownCampaigns(double latitude, double longitude, long[] campaignIds, int[] radii) {
+
+        int maxRadius() {
+            return radii.length == 0 ? 0 : radii[0];
+        }
+
+        /// Nowe tablice miasta po usunięciu kampanii removed i dodaniu added ([id, promień]) - jedno scalenie
+        /// posortowanych ciągów. Przy równym promieniu dotychczasowe kampanie zostają przed nowymi. Null, gdy miasto
+        /// nie ma już żadnej kampanii.
+        TownCampaigns rebuild(Set<Long> removed, List<long[]> added) {
+            List<long[]> additions = new ArrayList<>(added);
+            additions.sort(Comparator.comparingLong((long[] entry) -> entry[1]).reversed());
+            long[] ids = new long[campaignIds.length + additions.size()];
+            int[] newRadii = new int[ids.length];
+            int size = 0;
+            int next = 0;
+            for (int i = 0; i < campaignIds.length; i++) {
+                if (removed.contains(campaignIds[i])) {
+                    continue;
+                }
+                while (next < additions.size() && additions.get(next)[1] > radii[i]) {
+                    ids[size] = additions.get(next)[0];
+                    newRadii[size++] = (int) additions.get(next++)[1];
+                }
+                ids[size] = campaignIds[i];
+                newRadii[size++] = radii[i];
+            }
+            for (; next < additions.size(); next++) {
+                ids[size] = additions.get(next)[0];
+                newRadii[size++] = (int) additions.get(next)[1];
+            }
+            if (size == 0) {
+                return null;
+            }
+            return new TownCampaigns(latitude, longitude, Arrays.copyOf(ids, size), Arrays.copyOf(newRadii, size));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.task.campaign.service;
+
+import com.task.campaign.entity.Campaign;
+import com.task.campaign.repository.CampaignRepository;
+import com.task.config.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/// Uzupełnia tabelę campaign_keywords dla kampanii zapisanych, zanim słowa kluczowe były normalizowane.
+/// Działa porcjami, każda w osobnej transakcji, więc nie trzyma blokad ani całej tabeli w pamięci.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CampaignKeywordMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final CampaignRepository campaignRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateKeywords() {
+        int migrated = 0;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            migrated += migrateShard(shard);
+        }
+        if (migrated > 0) {
+            log.info("Migrated keywords of {} campaigns to campaign_keywords", migrated);
+        }
+    }
+
+    private int migrateShard(int shard) {
+        long afterId = 0;
+        int migrated = 0;
+        while (true) {
+            long batchAfterId = afterId;
+            List<Campaign> batch = shardRouter.callOnShard(shard, false, () -> transactionTemplate.execute(status -> {
+                List<Campaign> campaigns = campaignRepository.findWithoutKeywordSet(batchAfterId, Limit.of(BATCH_SIZE));
+                campaigns.forEach(campaign -> campaign.setKeywords(campaign.getKeywords()));
+                return campaigns;
+            }));
+            if (batch == null || batch.isEmpty()) {
+                return migrated;
+            }
+            migrated += batch.size();
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+    }
+}
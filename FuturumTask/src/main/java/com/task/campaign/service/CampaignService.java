@@ -1,30 +1,92 @@
 package com.task.campaign.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.task.ads.service.AdMatchingEngine;
+import com.task.campaign.dto.BulkCampaignRequestDto;
+import com.task.campaign.dto.BulkCampaignResponseDto;
+import com.task.campaign.dto.BulkCampaignUpdateDto;
+import com.task.campaign.dto.BulkItemResultDto;
+import com.task.campaign.dto.CampaignFilterDto;
+import com.task.campaign.dto.CampaignPageDto;
 import com.task.campaign.dto.CampaignRequestDto;
 import com.task.campaign.dto.CampaignResponseDto;
 import com.task.campaign.entity.Campaign;
 import com.task.campaign.entity.Seller;
+import com.task.campaign.enums.BalanceTransactionType;
+import com.task.campaign.enums.BulkItemStatus;
+import com.task.campaign.enums.BulkOperation;
+import com.task.campaign.enums.CampaignChangeType;
+import com.task.campaign.enums.CampaignStatus;
+import com.task.campaign.event.CampaignChangedEvent;
 import com.task.campaign.repository.CampaignRepository;
 import com.task.campaign.repository.SellerRepository;
+import com.task.config.CacheConfig;
+import com.task.config.datasource.ReadScope;
+import com.task.config.sharding.ShardRouter;
 import com.task.exception.ResourceNotFoundException;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+//Czas każdej operacji trafia do metryki campaign.service z tagami class i method
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed("campaign.service")
 public class CampaignService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
+    //Równe spring.jpa.properties.hibernate.jdbc.batch_size - jeden flush wysyła jedną paczkę INSERT-ów
+    private static final int BULK_FLUSH_INTERVAL = 50;
+
     private final CampaignRepository campaignRepository;
     private final SellerRepository sellerRepository;
+    private final ObjectMapper objectMapper;
+    private final BalanceLedgerService balanceLedgerService;
+    private final CampaignGeoIndex campaignGeoIndex;
+    private final CampaignColumnStore campaignColumnStore;
+    private final SellerService sellerService;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final ShardRouter shardRouter;
+    private final AdMatchingEngine adMatchingEngine;
 
-    private CampaignResponseDto mapToCampaignResponseDto(Campaign campaign) {
+    //Statyczne i pakietowe, żeby benchmark mapowania (src/jmh) mógł je wywołać bez kontekstu Springa
+    static CampaignResponseDto mapToCampaignResponseDto(Campaign campaign) {
         if (campaign == null) {
             log.warn("Attempted to map a null Campaign to CampaignResponseDto");
             return null;
@@ -48,6 +110,7 @@ public class CampaignService {
                 campaign.getKeywords(),
                 campaign.getBidAmount(),
                 campaign.getCampaignFund(),
+                campaign.getSpentAmount(),
                 campaign.getStatus(),
                 campaign.getTown(),
                 campaign.getRadius(),
@@ -57,9 +120,22 @@ public class CampaignService {
         );
     }
 
+    private void applyRequest(Campaign campaign, CampaignRequestDto campaignRequestDto) {
+        campaign.setCampaignName(campaignRequestDto.getCampaignName());
+        campaign.setKeywords(campaignRequestDto.getKeywords());
+        campaign.setBidAmount(campaignRequestDto.getBidAmount());
+        campaign.setCampaignFund(campaignRequestDto.getCampaignFund());
+        campaign.setStatus(campaignRequestDto.getStatus());
+        campaign.setTown(campaignRequestDto.getTown());
+        campaign.setRadius(campaignRequestDto.getRadius());
+    }
+
     @Transactional
     public CampaignResponseDto createCampaign(CampaignRequestDto campaignRequestDto) {
-        log.info("Attempting to create campaign with data: {}", campaignRequestDto);
+        log.info("Attempting to create campaign for seller ID: {}", campaignRequestDto.getSellerId());
+        log.debug("Campaign data: {}", campaignRequestDto);
+        //Kampania powstaje na shardzie sprzedawcy, więc obciążenie salda to transakcja na jednym shardzie
+        shardRouter.bind(shardRouter.shardOfSeller(campaignRequestDto.getSellerId()));
 
         Seller seller = sellerRepository.findById(campaignRequestDto.getSellerId())
                 .orElseThrow(() -> {
@@ -68,56 +144,191 @@ public class CampaignService {
                 });
         log.info("Found seller: {}", seller.getName());
 
-        if (seller.getEmeraldBalance().compareTo(campaignRequestDto.getCampaignFund()) < 0) {
-            log.warn("Insufficient funds for seller ID: {}. Required: {}, Available: {}",
-                    seller.getId(), campaignRequestDto.getCampaignFund(), seller.getEmeraldBalance());
-            throw new RuntimeException("Niewystarczające środki na koncie Emerald sprzedawcy: " + seller.getName());
-        }
-
-        BigDecimal newBalance = seller.getEmeraldBalance().subtract(campaignRequestDto.getCampaignFund());
-        seller.setEmeraldBalance(newBalance);
-        sellerRepository.save(seller);
-        log.info("Seller ID: {} balance updated to: {}", seller.getId(), newBalance);
-
         Campaign campaign = new Campaign();
-        campaign.setCampaignName(campaignRequestDto.getCampaignName());
-        campaign.setKeywords(campaignRequestDto.getKeywords());
-        campaign.setBidAmount(campaignRequestDto.getBidAmount());
-        campaign.setCampaignFund(campaignRequestDto.getCampaignFund());
-        campaign.setStatus(campaignRequestDto.getStatus());
-        campaign.setTown(campaignRequestDto.getTown());
-        campaign.setRadius(campaignRequestDto.getRadius());
+        applyRequest(campaign, campaignRequestDto);
         campaign.setSeller(seller);
 
         Campaign savedCampaign = campaignRepository.save(campaign);
+        balanceLedgerService.debit(seller, campaignRequestDto.getCampaignFund(),
+                savedCampaign.getId(), BalanceTransactionType.CAMPAIGN_CREATED);
         log.info("Campaign created successfully with ID: {}", savedCampaign.getId());
-        return mapToCampaignResponseDto(savedCampaign);
+        CampaignResponseDto response = mapToCampaignResponseDto(savedCampaign);
+        eventPublisher.publishEvent(new CampaignChangedEvent(
+                CampaignChangeType.CREATED, savedCampaign.getId(), seller.getId(), null, response));
+        return response;
     }
 
     @Transactional(readOnly = true)
-    public List<CampaignResponseDto> getAllCampaigns() {
-        log.info("Fetching all campaigns");
-        List<Campaign> campaigns = campaignRepository.findAll();
-        log.info("Found {} campaigns in database", campaigns.size());
-        return campaigns.stream()
-                .map(this::mapToCampaignResponseDto)
+    public CampaignPageDto getAllCampaigns(CampaignFilterDto filter, Long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        log.info("Fetching campaigns after ID: {} (limit {})", afterId, pageSize);
+        log.debug("Campaign filter: {}", filter);
+        //Pobieramy jeden rekord więcej, żeby wiedzieć, czy istnieje kolejna strona. Filtr sprzedawcy wskazuje
+        //jeden shard; bez niego każdy shard zwraca swoją stronę, a wynik to pierwsze rekordy ich złączenia po id
+        List<CampaignResponseDto> items;
+        if (filter.getSellerId() != null) {
+            items = ReadScope.forSeller(filter.getSellerId(), () -> shardRouter.callOnShard(
+                    shardRouter.shardOfSeller(filter.getSellerId()), true, () -> findPage(filter, afterId, pageSize + 1)));
+        } else {
+            items = mergeById(shardRouter.scatter(true, shard -> findPage(filter, afterId, pageSize + 1)), pageSize + 1);
+        }
+        log.info("Found {} campaigns in database", items.size());
+        return toPage(items, pageSize);
+    }
+
+    @Transactional(readOnly = true)
+    public CampaignPageDto getCampaignsByKeyword(String keyword, CampaignStatus status, Long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        log.info("Fetching {} campaigns with keyword '{}' after ID: {}", status, keyword, afterId);
+        String normalizedKeyword = keyword.trim().toLowerCase(Locale.ROOT);
+        if (status == CampaignStatus.ON && campaignColumnStore.isLoaded()) {
+            //Id strony aktywnych kampanii wybiera snapshot kolumnowy, z bazy czytamy tylko te wiersze po kluczu
+            long[] ids = new long[pageSize + 1];
+            int found = campaignColumnStore.findActive(normalizedKeyword, null, afterId == null ? 0 : afterId, ids);
+            //Kursor z id wybranych przez snapshot: kampania usunięta lub wyłączona w międzyczasie (albo jeszcze
+            //niewidoczna na replice) skraca tylko tę stronę, a nie kończy stronicowania
+            List<CampaignResponseDto> page = findAllByIdInOrder(ids, Math.min(found, pageSize)).stream()
+                    .filter(campaign -> campaign.getStatus() == CampaignStatus.ON)
+                    .collect(Collectors.toList());
+            return new CampaignPageDto(page, found > pageSize ? ids[pageSize - 1] : null);
+        }
+        List<CampaignResponseDto> items = mergeById(shardRouter.scatter(true, shard -> campaignRepository
+                .findPageByKeyword(normalizedKeyword, status, afterId, Limit.of(pageSize + 1))), pageSize + 1);
+        return toPage(items, pageSize);
+    }
+
+    private List<CampaignResponseDto> findPage(CampaignFilterDto filter, Long afterId, int limit) {
+        return campaignRepository.findPage(afterId,
+                filter.getStatus(), filter.getTown(), filter.getSellerId(), filter.getMinBid(), filter.getMaxBid(),
+                Limit.of(limit));
+    }
+
+    //Strony z shardów są posortowane po id, więc pierwsze rekordy złączenia to dokładnie kolejna strona całości
+    private static List<CampaignResponseDto> mergeById(List<List<CampaignResponseDto>> pages, int limit) {
+        if (pages.size() == 1) {
+            return pages.get(0);
+        }
+        return pages.stream()
+                .flatMap(Collection::stream)
+                .sorted(Comparator.comparing(CampaignResponseDto::getId))
+                .limit(limit)
                 .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
+    public List<CampaignResponseDto> getCampaignsCovering(double latitude, double longitude, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long[] ids = campaignGeoIndex.findCovering(latitude, longitude, size);
+        log.info("Found {} campaigns covering point ({}, {})", ids.length, latitude, longitude);
+        //Zachowujemy kolejność z indeksu (najbliższe miasta najpierw)
+        return findAllByIdInOrder(ids, ids.length);
+    }
+
+    //Kampanie o pierwszych count id z tablicy, w jej kolejności; usunięte w międzyczasie są pomijane
+    private List<CampaignResponseDto> findAllByIdInOrder(long[] ids, int count) {
+        if (count == 0) {
+            return new ArrayList<>();
+        }
+        Map<Integer, List<Long>> idsByShard = Arrays.stream(ids, 0, count).boxed()
+                .collect(Collectors.groupingBy(shardRouter::shardOfCampaign));
+        Map<Long, CampaignResponseDto> campaigns = shardRouter.scatter(true, shard -> idsByShard.containsKey(shard)
+                        ? campaignRepository.findResponseDtosByIdIn(idsByShard.get(shard))
+                        : List.<CampaignResponseDto>of()).stream()
+                .flatMap(Collection::stream)
+                .collect(Collectors.toMap(CampaignResponseDto::getId, Function.identity()));
+        return Arrays.stream(ids, 0, count)
+                .mapToObj(campaigns::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private CampaignResponseDto withSellerBalance(CampaignResponseDto campaign, BigDecimal sellerBalance) {
+        return new CampaignResponseDto(
+                campaign.getId(),
+                campaign.getCampaignName(),
+                campaign.getKeywords(),
+                campaign.getBidAmount(),
+                campaign.getCampaignFund(),
+                campaign.getSpentAmount(),
+                campaign.getStatus(),
+                campaign.getTown(),
+                campaign.getRadius(),
+                campaign.getSellerId(),
+                campaign.getSellerName(),
+                sellerBalance
+        );
+    }
+
+    private CampaignPageDto toPage(List<CampaignResponseDto> items, int pageSize) {
+        Long nextCursor = null;
+        if (items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            nextCursor = items.get(pageSize - 1).getId();
+        }
+        return new CampaignPageDto(items, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportCampaigns(CampaignFilterDto filter, OutputStream outputStream) throws IOException {
+        log.info("Exporting campaigns");
+        log.debug("Campaign filter: {}", filter);
+        long[] exported = {0};
+        JsonGenerator generator = objectMapper.createGenerator(outputStream);
+        generator.setRootValueSeparator(null);
+        //Domyślnie writeValue opróżnia generator po każdym wierszu - tu co EXPORT_FLUSH_INTERVAL wierszy
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        //Przy shardach kolejno shard po shardzie - strumień trzyma połączenie, więc nie czytamy ich równolegle
+        try {
+            shardRouter.forEachShard(true, shard -> exportShard(filter, writer, generator, exported));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        generator.flush();
+        log.info("Exported {} campaigns", exported[0]);
+    }
+
+    private void exportShard(CampaignFilterDto filter, ObjectWriter writer, JsonGenerator generator, long[] exported) {
+        try (Stream<CampaignResponseDto> campaigns = campaignRepository.streamFiltered(
+                filter.getStatus(), filter.getTown(), filter.getSellerId(), filter.getMinBid(), filter.getMaxBid())) {
+            Iterator<CampaignResponseDto> iterator = campaigns.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                if (++exported[0] % EXPORT_FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //Bez transakcji: trafienie w cache nie sięga do bazy, a odczyt kampanii ma własną transakcję readOnly w repozytorium
     public CampaignResponseDto getCampaignById(Long id) {
         log.info("Fetching campaign with ID: {}", id);
-        Campaign campaign = campaignRepository.findById(id)
-                .orElseThrow(() -> {
-                    log.warn("Campaign not found with ID: {}", id);
-                    return new ResourceNotFoundException("Campaign", "id", id);
-                });
-        return mapToCampaignResponseDto(campaign);
+        Cache campaignCache = cacheManager.getCache(CacheConfig.CAMPAIGNS);
+        CampaignResponseDto campaign = campaignCache == null ? null : campaignCache.get(id, CampaignResponseDto.class);
+        if (campaign == null) {
+            campaign = ReadScope.forCampaign(id, () -> shardRouter.callOnShard(shardRouter.shardOfCampaign(id), true,
+                            () -> campaignRepository.findResponseDtoById(id)))
+                    .orElseThrow(() -> {
+                        log.warn("Campaign not found with ID: {}", id);
+                        return new ResourceNotFoundException("Campaign", "id", id);
+                    });
+            if (campaignCache != null) {
+                campaignCache.put(id, campaign);
+            }
+        }
+        //Saldo zmienia się także przy zapisach innych kampanii sprzedawcy, więc bierzemy je z cache sprzedawców
+        BigDecimal sellerBalance = sellerService.getSellerById(campaign.getSellerId()).getEmeraldBalance();
+        return withSellerBalance(campaign, sellerBalance);
     }
 
     @Transactional
     public CampaignResponseDto updateCampaign(Long campaignId, CampaignRequestDto campaignRequestDto) {
-        log.info("Attempting to update campaign with ID: {} and data: {}", campaignId, campaignRequestDto);
+        log.info("Attempting to update campaign with ID: {}", campaignId);
+        log.debug("Campaign data: {}", campaignRequestDto);
+        shardRouter.bind(shardRouter.shardOfCampaign(campaignId));
 
         Campaign existingCampaign = campaignRepository.findById(campaignId)
                 .orElseThrow(() -> {
@@ -130,37 +341,34 @@ public class CampaignService {
             log.warn("Attempt to change seller for campaign ID: {} is not allowed or not implemented.", campaignId);
         }
 
+        String previousKeywords = existingCampaign.getKeywords();
         BigDecimal oldFund = existingCampaign.getCampaignFund();
         BigDecimal newFund = campaignRequestDto.getCampaignFund();
-        BigDecimal fundDifference = oldFund.subtract(newFund);
-
-        BigDecimal potentialNewSellerBalance = seller.getEmeraldBalance().add(fundDifference);
-        if (potentialNewSellerBalance.compareTo(BigDecimal.ZERO) < 0) {
-            log.warn("Insufficient funds for seller ID: {} to cover fund change for campaign ID: {}. Required change: {}, Available: {}",
-                    seller.getId(), campaignId, newFund.subtract(oldFund), seller.getEmeraldBalance());
-            throw new RuntimeException("Niewystarczające środki na koncie Emerald sprzedawcy do pokrycia zmiany funduszu kampanii.");
+        int fundChange = newFund.compareTo(oldFund);
+        if (fundChange > 0) {
+            balanceLedgerService.debit(seller, newFund.subtract(oldFund), campaignId,
+                    BalanceTransactionType.CAMPAIGN_FUND_INCREASED);
+        } else if (fundChange < 0) {
+            balanceLedgerService.credit(seller, oldFund.subtract(newFund), campaignId,
+                    BalanceTransactionType.CAMPAIGN_FUND_DECREASED);
         }
 
-        seller.setEmeraldBalance(potentialNewSellerBalance);
-        sellerRepository.save(seller);
-        log.info("Seller ID: {} balance updated to: {} due to campaign {} fund change.", seller.getId(), potentialNewSellerBalance, campaignId);
-
-        existingCampaign.setCampaignName(campaignRequestDto.getCampaignName());
-        existingCampaign.setKeywords(campaignRequestDto.getKeywords());
-        existingCampaign.setBidAmount(campaignRequestDto.getBidAmount());
-        existingCampaign.setCampaignFund(newFund);
-        existingCampaign.setStatus(campaignRequestDto.getStatus());
-        existingCampaign.setTown(campaignRequestDto.getTown());
-        existingCampaign.setRadius(campaignRequestDto.getRadius());
+        applyRequest(existingCampaign, campaignRequestDto);
 
         Campaign updatedCampaign = campaignRepository.save(existingCampaign);
         log.info("Campaign updated successfully with ID: {}", updatedCampaign.getId());
-        return mapToCampaignResponseDto(updatedCampaign);
+        CampaignResponseDto response = mapToCampaignResponseDto(updatedCampaign);
+        eventPublisher.publishEvent(new CampaignChangedEvent(
+                CampaignChangeType.UPDATED, campaignId, seller.getId(), previousKeywords, response));
+        return response;
     }
 
     @Transactional
     public void deleteCampaign(Long campaignId) {
         log.info("Attempting to delete campaign with ID: {}", campaignId);
+        shardRouter.bind(shardRouter.shardOfCampaign(campaignId));
+        //Przed odczytem funduszu: silnik reklam kończy zapis wydatków tej kampanii i oddaje te, których nie zapisał
+        BigDecimal unflushedSpend = adMatchingEngine.settleBeforeDelete(campaignId);
         Campaign campaignToDelete = campaignRepository.findById(campaignId)
                 .orElseThrow(() -> {
                     log.warn("Campaign not found for deletion with ID: {}", campaignId);
@@ -168,13 +376,192 @@ public class CampaignService {
                 });
 
         Seller seller = campaignToDelete.getSeller();
-        BigDecimal campaignFundToReturn = campaignToDelete.getCampaignFund();
-        seller.setEmeraldBalance(seller.getEmeraldBalance().add(campaignFundToReturn));
-        sellerRepository.save(seller);
-        log.info("Returned fund {} to seller ID: {}. New balance: {}",
-                campaignFundToReturn, seller.getId(), seller.getEmeraldBalance());
+        BigDecimal campaignFundToReturn = campaignToDelete.getCampaignFund().subtract(unflushedSpend);
+        balanceLedgerService.credit(seller, campaignFundToReturn, campaignId, BalanceTransactionType.CAMPAIGN_DELETED);
 
         campaignRepository.delete(campaignToDelete);
         log.info("Campaign deleted successfully with ID: {}", campaignId);
+        eventPublisher.publishEvent(new CampaignChangedEvent(
+                CampaignChangeType.DELETED, campaignId, seller.getId(), campaignToDelete.getKeywords(), null));
+    }
+
+    /// Tworzy, zmienia i usuwa wiele kampanii jednego sprzedawcy w jednej transakcji. Błędne pozycje są odrzucane
+    /// (z powodem w wyniku), pozostałe są zapisywane, a saldo sprzedawcy zmienia się jednym wpisem o sumę zmian.
+    /// Brak środków na sumę zmian odrzuca całą paczkę.
+    @Transactional
+    public BulkCampaignResponseDto bulkCampaigns(BulkCampaignRequestDto request) {
+        List<CampaignRequestDto> creates = nullToEmpty(request.getCreate());
+        List<BulkCampaignUpdateDto> updates = nullToEmpty(request.getUpdate());
+        List<Long> deletes = nullToEmpty(request.getDelete());
+        log.info("Attempting bulk operation for seller ID: {} ({} creates, {} updates, {} deletes)",
+                request.getSellerId(), creates.size(), updates.size(), deletes.size());
+        //Kampanie innego sprzedawcy leżą zwykle na innym shardzie - takie pozycje są odrzucane jako nieznalezione
+        shardRouter.bind(shardRouter.shardOfSeller(request.getSellerId()));
+
+        Seller seller = sellerRepository.findById(request.getSellerId())
+                .orElseThrow(() -> {
+                    log.error("Seller not found with ID: {}", request.getSellerId());
+                    return new ResourceNotFoundException("Seller", "id", request.getSellerId());
+                });
+
+        Set<Long> existingIds = new HashSet<>(deletes);
+        updates.stream().filter(Objects::nonNull).forEach(update -> existingIds.add(update.getId()));
+        existingIds.remove(null);
+        Map<Long, Campaign> existing = campaignRepository.findAllById(existingIds).stream()
+                .collect(Collectors.toMap(Campaign::getId, Function.identity()));
+
+        List<BulkItemResultDto> results = new ArrayList<>(creates.size() + updates.size() + deletes.size());
+        //Kwota do pobrania z konta; ujemna oznacza zwrot
+        BigDecimal balanceChange = BigDecimal.ZERO;
+        Set<Long> touchedIds = new HashSet<>();
+
+        List<CampaignRequestDto> acceptedCreates = new ArrayList<>();
+        List<BulkItemResultDto> createResults = new ArrayList<>();
+        for (int i = 0; i < creates.size(); i++) {
+            CampaignRequestDto item = creates.get(i);
+            BulkItemResultDto result = new BulkItemResultDto(BulkOperation.CREATE, i, null, null, null);
+            results.add(result);
+            String error = validateItem(item, seller);
+            if (error != null) {
+                reject(result, error);
+                continue;
+            }
+            acceptedCreates.add(item);
+            createResults.add(result);
+            balanceChange = balanceChange.add(item.getCampaignFund());
+        }
+
+        List<Campaign> acceptedUpdates = new ArrayList<>();
+        List<CampaignRequestDto> updateRequests = new ArrayList<>();
+        List<BulkItemResultDto> updateResults = new ArrayList<>();
+        for (int i = 0; i < updates.size(); i++) {
+            BulkCampaignUpdateDto item = updates.get(i);
+            BulkItemResultDto result = new BulkItemResultDto(BulkOperation.UPDATE, i,
+                    item == null ? null : item.getId(), null, null);
+            results.add(result);
+            if (item == null) {
+                reject(result, "Update item is mandatory");
+                continue;
+            }
+            String error = validateItem(item.getCampaign(), seller);
+            if (error == null) {
+                error = validateExisting(item.getId(), existing, seller, touchedIds);
+            }
+            if (error != null) {
+                reject(result, error);
+                continue;
+            }
+            Campaign campaign = existing.get(item.getId());
+            acceptedUpdates.add(campaign);
+            updateRequests.add(item.getCampaign());
+            updateResults.add(result);
+            balanceChange = balanceChange.add(item.getCampaign().getCampaignFund().subtract(campaign.getCampaignFund()));
+        }
+
+        List<Campaign> acceptedDeletes = new ArrayList<>();
+        List<BulkItemResultDto> deleteResults = new ArrayList<>();
+        for (int i = 0; i < deletes.size(); i++) {
+            Long id = deletes.get(i);
+            BulkItemResultDto result = new BulkItemResultDto(BulkOperation.DELETE, i, id, null, null);
+            results.add(result);
+            String error = validateExisting(id, existing, seller, touchedIds);
+            if (error != null) {
+                reject(result, error);
+                continue;
+            }
+            Campaign campaign = existing.get(id);
+            acceptedDeletes.add(campaign);
+            deleteResults.add(result);
+            //Zapis wydatków, który zdążył zmienić fundusz po jego odczycie, wycofa paczkę przez konflikt wersji
+            BigDecimal unflushedSpend = adMatchingEngine.settleBeforeDelete(id);
+            balanceChange = balanceChange.subtract(campaign.getCampaignFund().subtract(unflushedSpend));
+        }
+
+        int balanceDirection = balanceChange.signum();
+        if (balanceDirection > 0) {
+            balanceLedgerService.debit(seller, balanceChange, null, BalanceTransactionType.CAMPAIGN_BULK_CHANGE);
+        } else if (balanceDirection < 0) {
+            balanceLedgerService.credit(seller, balanceChange.negate(), null, BalanceTransactionType.CAMPAIGN_BULK_CHANGE);
+        }
+
+        for (int i = 0; i < acceptedUpdates.size(); i++) {
+            Campaign campaign = acceptedUpdates.get(i);
+            String previousKeywords = campaign.getKeywords();
+            applyRequest(campaign, updateRequests.get(i));
+            updateResults.get(i).setStatus(BulkItemStatus.UPDATED);
+            eventPublisher.publishEvent(new CampaignChangedEvent(CampaignChangeType.UPDATED, campaign.getId(),
+                    seller.getId(), previousKeywords, mapToCampaignResponseDto(campaign)));
+        }
+        for (int i = 0; i < acceptedDeletes.size(); i++) {
+            Campaign campaign = acceptedDeletes.get(i);
+            campaignRepository.delete(campaign);
+            deleteResults.get(i).setStatus(BulkItemStatus.DELETED);
+            eventPublisher.publishEvent(new CampaignChangedEvent(CampaignChangeType.DELETED, campaign.getId(),
+                    seller.getId(), campaign.getKeywords(), null));
+        }
+        //Zmiany i usunięcia trafiają do bazy przed czyszczeniem kontekstu, które zaczyna się przy wstawianiu
+        entityManager.flush();
+
+        for (int i = 0; i < acceptedCreates.size(); i++) {
+            Campaign campaign = new Campaign();
+            applyRequest(campaign, acceptedCreates.get(i));
+            campaign.setSeller(seller);
+            //Id pochodzi z sekwencji (pula 50 wartości), więc persist nie wymaga natychmiastowego INSERT-a
+            entityManager.persist(campaign);
+            BulkItemResultDto result = createResults.get(i);
+            result.setCampaignId(campaign.getId());
+            result.setStatus(BulkItemStatus.CREATED);
+            eventPublisher.publishEvent(new CampaignChangedEvent(CampaignChangeType.CREATED, campaign.getId(),
+                    seller.getId(), null, mapToCampaignResponseDto(campaign)));
+            if ((i + 1) % BULK_FLUSH_INTERVAL == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+
+        log.info("Bulk operation for seller ID: {} finished: {} created, {} updated, {} deleted, {} rejected",
+                seller.getId(), acceptedCreates.size(), acceptedUpdates.size(), acceptedDeletes.size(),
+                results.size() - acceptedCreates.size() - acceptedUpdates.size() - acceptedDeletes.size());
+        return new BulkCampaignResponseDto(results, seller.getEmeraldBalance());
+    }
+
+    private String validateItem(CampaignRequestDto item, Seller seller) {
+        if (item == null) {
+            return "Campaign data is mandatory";
+        }
+        Set<ConstraintViolation<CampaignRequestDto>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (!item.getSellerId().equals(seller.getId())) {
+            return "Seller's id must match the bulk request seller";
+        }
+        return null;
+    }
+
+    private String validateExisting(Long id, Map<Long, Campaign> existing, Seller seller, Set<Long> touchedIds) {
+        Campaign campaign = id == null ? null : existing.get(id);
+        if (campaign == null) {
+            return String.format("Campaign not found with id : '%s'", id);
+        }
+        if (!campaign.getSeller().getId().equals(seller.getId())) {
+            return "Campaign belongs to another seller";
+        }
+        if (!touchedIds.add(id)) {
+            return "Campaign is already changed by an earlier item of this request";
+        }
+        return null;
+    }
+
+    private static void reject(BulkItemResultDto result, String error) {
+        result.setStatus(BulkItemStatus.REJECTED);
+        result.setError(error);
+    }
+
+    private static <T> List<T> nullToEmpty(List<T> items) {
+        return items == null ? List.of() : items;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,204 @@
+package com.task.campaign.service;
+
+import com.task.campaign.dto.CampaignHighWaterMarkDto;
+import com.task.campaign.repository.CampaignRepository;
+import com.task.config.sharding.ShardRouter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/// Start aplikacji ze struktur odczytu zapisanych w pliku: popularności słów kluczowych (KeywordService) i kolumn
+/// aktywnych kampanii (CampaignColumnStore). Plik jest zapisywany przy zamknięciu aplikacji razem ze znacznikiem
+/// stanu tabeli kampanii na każdym shardzie. Przy starcie plik jest mapowany do pamięci, sprawdzany (wersja formatu,
+/// liczba shardów, suma kontrolna) i odtwarzany bez zapytań do bazy. Gdy znacznik w bazie jest inny niż w pliku,
+/// struktury są uzgadniane z bazą w tle, a do tego czasu odpowiadają stanem z pliku. Bez pliku (lub z uszkodzonym)
+/// struktury są wczytywane z bazy jak dotąd. Lista miast (TownService) jest stała w kodzie, więc nie trafia do pliku.
+@Slf4j
+@Service
+public class CampaignSnapshotService {
+
+    static final int MAGIC = 0x46545343;
+    static final int FORMAT_VERSION = 1;
+
+    private final CampaignColumnStore columnStore;
+    private final KeywordService keywordService;
+    private final CampaignRepository campaignRepository;
+    private final ShardRouter shardRouter;
+    private final Path path;
+    private final int catchUpBatchSize;
+
+    //Struktury odpowiadają bazie (wczytane z niej albo uzgodnione) - tylko taki stan wolno zapisać do pliku
+    private volatile boolean consistent;
+
+    public CampaignSnapshotService(CampaignColumnStore columnStore,
+                                   KeywordService keywordService,
+                                   CampaignRepository campaignRepository,
+                                   ShardRouter shardRouter,
+                                   @Value("${snapshot.path:}") String path,
+                                   @Value("${snapshot.catch-up-batch-size:1000}") int catchUpBatchSize) {
+        this.columnStore = columnStore;
+        this.keywordService = keywordService;
+        this.campaignRepository = campaignRepository;
+        this.shardRouter = shardRouter;
+        this.path = path.isBlank() ? null : Path.of(path);
+        this.catchUpBatchSize = catchUpBatchSize;
+    }
+
+    //Po CampaignKeywordMigration, żeby policzyć również kampanie sprzed normalizacji słów kluczowych
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<CampaignHighWaterMarkDto> snapshotMarks = path == null ? null : restore();
+        if (snapshotMarks == null) {
+            keywordService.loadKeywordPopularity();
+            columnStore.loadActiveCampaigns();
+            consistent = true;
+            return;
+        }
+        if (snapshotMarks.equals(highWaterMarks())) {
+            consistent = true;
+            log.info("Campaign snapshot is up to date with the database");
+        } else {
+            log.info("Campaign snapshot is behind the database, catching up in background");
+            Thread.ofVirtual().name("campaign-snapshot-catch-up").start(this::catchUp);
+        }
+    }
+
+    private void catchUp() {
+        long started = System.nanoTime();
+        try {
+            keywordService.loadKeywordPopularity();
+            columnStore.catchUp(catchUpBatchSize);
+            consistent = true;
+            log.info("Campaign snapshot caught up with the database in {} ms ({} active campaigns)",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), columnStore.activeCount());
+        } catch (RuntimeException e) {
+            log.error("Campaign snapshot catch-up failed, read structures may be stale until campaigns change", e);
+        }
+    }
+
+    //Zwraca znaczniki z pliku albo null, gdy pliku nie ma lub nie nadaje się do użycia
+    private List<CampaignHighWaterMarkDto> restore() {
+        long started = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < Long.BYTES || size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Invalid file size " + size);
+            }
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int payloadSize = (int) size - Long.BYTES;
+            CRC32C checksum = new CRC32C();
+            checksum.update(mapped.slice(0, payloadSize));
+            if (checksum.getValue() != mapped.getLong(payloadSize)) {
+                throw new IllegalStateException("Checksum mismatch");
+            }
+            SnapshotInput in = new SnapshotInput(mapped.slice(0, payloadSize));
+            if (in.readInt() != MAGIC) {
+                throw new IllegalStateException("Not a campaign snapshot");
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported format version " + version);
+            }
+            Instant createdAt = Instant.ofEpochMilli(in.readLong());
+            int shardCount = in.readInt();
+            if (shardCount != shardRouter.shardCount()) {
+                throw new IllegalStateException("Written for " + shardCount + " shards, running with " +
+                        shardRouter.shardCount());
+            }
+            List<CampaignHighWaterMarkDto> marks = new ArrayList<>(shardCount);
+            for (int shard = 0; shard < shardCount; shard++) {
+                marks.add(new CampaignHighWaterMarkDto(in.readLong(), in.readLong(), in.readLong()));
+            }
+            Map<String, Integer> popularity = new HashMap<>();
+            for (int i = in.readCount(Integer.BYTES); i > 0; i--) {
+                popularity.put(in.readString(), in.readInt());
+            }
+            columnStore.restore(in);
+            keywordService.resetPopularity(popularity);
+            log.info("Campaign snapshot from {} restored in {} ms ({} active campaigns, {} keywords in use, {} KB)",
+                    createdAt, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), columnStore.activeCount(),
+                    popularity.size(), size / 1024);
+            return marks;
+        } catch (NoSuchFileException e) {
+            log.info("No campaign snapshot at {}, loading from the database", path);
+            return null;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring campaign snapshot {}: {}", path, e.toString());
+            return null;
+        }
+    }
+
+    /// Zapis przy zamknięciu aplikacji: najpierw znaczniki z bazy, potem struktury - zmiany, które zdążą trafić do
+    /// struktur po odczycie znaczników, najwyżej wywołają zbędne uzgadnianie przy następnym starcie. Plik jest
+    /// zapisywany obok docelowego i podmieniany atomowo, więc przerwany zapis nie psuje poprzedniego snapshotu.
+    @PreDestroy
+    public void writeSnapshot() {
+        if (path == null || !consistent) {
+            return;
+        }
+        long started = System.nanoTime();
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            List<CampaignHighWaterMarkDto> marks = highWaterMarks();
+            Path directory = path.toAbsolutePath().getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            long bytes;
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                SnapshotOutput out = new SnapshotOutput(channel);
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(System.currentTimeMillis());
+                out.writeInt(marks.size());
+                for (CampaignHighWaterMarkDto mark : marks) {
+                    out.writeLong(mark.getCount());
+                    out.writeLong(mark.getMaxId());
+                    out.writeLong(mark.getVersionSum());
+                }
+                Map<String, Integer> popularity = keywordService.popularity();
+                out.writeInt(popularity.size());
+                for (Map.Entry<String, Integer> entry : popularity.entrySet()) {
+                    out.writeString(entry.getKey());
+                    out.writeInt(entry.getValue());
+                }
+                columnStore.writeTo(out);
+                out.finish();
+                bytes = out.bytesWritten();
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Campaign snapshot written to {} in {} ms ({} active campaigns, {} KB)", path,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), columnStore.activeCount(), bytes / 1024);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write campaign snapshot to {}", path, e);
+        }
+    }
+
+    private List<CampaignHighWaterMarkDto> highWaterMarks() {
+        return shardRouter.scatter(true, shard -> campaignRepository.findHighWaterMark());
+    }
+}
@@ -0,0 +1,184 @@
+package com.task.campaign.service;
+
+import com.task.campaign.dto.CampaignResponseDto;
+import com.task.campaign.dto.ChangeEventDto;
+import com.task.campaign.dto.SellerDto;
+import com.task.campaign.enums.ChangeEventType;
+import com.task.campaign.event.CampaignChangedEvent;
+import com.task.campaign.event.SellerBalanceChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/// Strumień zmian kampanii i sald po commicie. Ostatnie zdarzenia są trzymane w buforze cyklicznym z kolejnymi
+/// numerami (offset), więc klient wznawia od Last-Event-ID. Gdy brakujące zdarzenia zostały już nadpisane (albo
+/// klient łączy się pierwszy raz), dostaje "reset" i pobiera pełne listy jeszcze raz.
+/// Do klientów pisze wyłącznie jeden wątek, więc zapisy żądań nigdy nie czekają na wolne połączenie.
+@Slf4j
+@Service
+public class ChangeFeedService {
+
+    private static final int DISPATCH_BATCH_SIZE = 500;
+
+    private final ChangeEventDto[] ring;
+    //Numer ostatniego zdarzenia; zdarzenia numerujemy od 1, więc 0 oznacza pusty strumień
+    private long lastOffset;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "change-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ChangeFeedService(@Value("${changefeed.capacity:10000}") int capacity) {
+        this.ring = new ChangeEventDto[capacity];
+    }
+
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter();
+        Subscriber subscriber = new Subscriber(emitter);
+        synchronized (this) {
+            if (lastEventId != null && lastEventId <= lastOffset && lastEventId >= lastOffset - ring.length) {
+                subscriber.cursor = lastEventId;
+            } else {
+                subscriber.needsReset = true;
+            }
+        }
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        log.info("Change feed subscriber connected from offset {} ({} subscribers)", lastEventId, subscribers.size());
+        dispatcher.execute(this::dispatch);
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onCampaignChanged(CampaignChangedEvent event) {
+        ChangeEventType type = switch (event.getType()) {
+            case CREATED -> ChangeEventType.CAMPAIGN_CREATED;
+            case UPDATED -> ChangeEventType.CAMPAIGN_UPDATED;
+            case DELETED -> ChangeEventType.CAMPAIGN_DELETED;
+        };
+        append(type, event.getCampaignId(), event.getSellerId(), event.getCampaign(), null);
+    }
+
+    @TransactionalEventListener
+    public void onSellerBalanceChanged(SellerBalanceChangedEvent event) {
+        append(ChangeEventType.SELLER_BALANCE_CHANGED, null, event.getSellerId(), null,
+                new SellerDto(event.getSellerId(), event.getSellerName(), event.getBalanceAfter()));
+    }
+
+    //Komentarz SSE co jakiś czas, żeby pośrednicy nie zamykali bezczynnych połączeń
+    @Scheduled(fixedDelayString = "${changefeed.heartbeat-interval-ms:15000}")
+    public void sendHeartbeat() {
+        dispatcher.execute(() -> {
+            for (Subscriber subscriber : subscribers) {
+                send(subscriber, SseEmitter.event().comment("heartbeat"));
+            }
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        dispatcher.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void append(ChangeEventType type, Long campaignId, Long sellerId,
+                        CampaignResponseDto campaign, SellerDto seller) {
+        synchronized (this) {
+            long offset = ++lastOffset;
+            ring[(int) (offset % ring.length)] = new ChangeEventDto(offset, type, campaignId, sellerId, campaign, seller);
+        }
+        if (!subscribers.isEmpty()) {
+            dispatcher.execute(this::dispatch);
+        }
+    }
+
+    /// Zdarzenia o numerach większych niż offset (najwyżej max) albo null, gdy część z nich została już nadpisana.
+    private synchronized List<ChangeEventDto> readAfter(long offset, int max) {
+        if (offset < lastOffset - ring.length) {
+            return null;
+        }
+        List<ChangeEventDto> events = new ArrayList<>((int) Math.min(max, lastOffset - offset));
+        for (long next = offset + 1; next <= lastOffset && events.size() < max; next++) {
+            events.add(ring[(int) (next % ring.length)]);
+        }
+        return events;
+    }
+
+    private synchronized long currentOffset() {
+        return lastOffset;
+    }
+
+    //Uruchamiane tylko na wątku dispatcher
+    private void dispatch() {
+        for (Subscriber subscriber : subscribers) {
+            while (true) {
+                if (subscriber.needsReset) {
+                    long offset = currentOffset();
+                    if (!send(subscriber, SseEmitter.event().id(Long.toString(offset)).name("reset").data(offset))) {
+                        break;
+                    }
+                    subscriber.cursor = offset;
+                    subscriber.needsReset = false;
+                }
+                List<ChangeEventDto> events = readAfter(subscriber.cursor, DISPATCH_BATCH_SIZE);
+                if (events == null) {
+                    subscriber.needsReset = true;
+                    continue;
+                }
+                if (events.isEmpty()) {
+                    break;
+                }
+                for (ChangeEventDto event : events) {
+                    if (!send(subscriber, SseEmitter.event().id(Long.toString(event.getOffset()))
+                            .name("change").data(event, MediaType.APPLICATION_JSON))) {
+                        break;
+                    }
+                    subscriber.cursor = event.getOffset();
+                }
+                if (!subscribers.contains(subscriber)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private boolean send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Change feed subscriber disconnected", e);
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        //Numer ostatniego zdarzenia wysłanego do klienta
+        private long cursor;
+        private boolean needsReset;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
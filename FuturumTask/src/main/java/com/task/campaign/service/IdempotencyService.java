@@ -0,0 +1,179 @@
+package com.task.campaign.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.task.campaign.dto.CampaignRequestDto;
+import com.task.campaign.dto.CampaignResponseDto;
+import com.task.campaign.entity.IdempotencyRecord;
+import com.task.campaign.repository.IdempotencyRecordRepository;
+import com.task.config.CacheConfig;
+import com.task.config.sharding.ShardRouter;
+import com.task.exception.IdempotencyKeyMismatchException;
+import com.task.exception.IdempotentRequestInProgressException;
+import com.task.exception.InvalidIdempotencyKeyException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/// Tworzenie kampanii z nagłówkiem Idempotency-Key: ponowienie z tym samym kluczem i tą samą treścią zwraca
+/// pierwotną odpowiedź zamiast tworzyć drugą kampanię i drugi raz obciążać sprzedawcę. Wynik trzymany jest
+/// w ograniczonym cache z TTL, a trwała kopia w tabeli idempotency_keys pokrywa restart i wypadnięcie z cache.
+/// Rekord klucza powstaje w tej samej transakcji co kampania, więc równoległe ponowienie czeka na jej koniec.
+/// Przy shardach rekord leży na shardzie sprzedawcy z żądania, razem z kampanią.
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final CampaignService campaignService;
+    private final IdempotencyRecordRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final ObjectMapper objectMapper;
+    private final Cache cache;
+    private final Duration timeToLive;
+    private final Clock clock = Clock.systemUTC();
+
+    public IdempotencyService(CampaignService campaignService,
+                              IdempotencyRecordRepository repository,
+                              TransactionTemplate transactionTemplate,
+                              ShardRouter shardRouter,
+                              ObjectMapper objectMapper,
+                              CacheManager cacheManager,
+                              @Value("${idempotency.time-to-live}") Duration timeToLive) {
+        this.campaignService = campaignService;
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.objectMapper = objectMapper;
+        this.cache = cacheManager.getCache(CacheConfig.IDEMPOTENCY);
+        this.timeToLive = timeToLive;
+    }
+
+    public CampaignResponseDto createCampaign(String key, CampaignRequestDto request) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException(
+                    "Nagłówek Idempotency-Key musi mieć od 1 do " + MAX_KEY_LENGTH + " znaków");
+        }
+        String requestHash = hash(request);
+        int shard = shardRouter.shardOfSeller(request.getSellerId());
+
+        StoredResult stored = find(shard, key);
+        if (stored != null) {
+            return replay(key, requestHash, stored);
+        }
+        try {
+            return transactionTemplate.execute(status -> {
+                shardRouter.bind(shard);
+                //Wygasły, jeszcze nieusunięty rekord klucza nie może blokować jego ponownego użycia
+                Instant now = clock.instant();
+                repository.deleteCreatedBefore(key, now.minus(timeToLive));
+                repository.insertPending(key, requestHash, now);
+                CampaignResponseDto response = campaignService.createCampaign(request);
+                repository.complete(key, toJson(response));
+                //Do cache dopiero po commicie - wycofana transakcja nie może zostawić wyniku do powtórzenia
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        cache.put(key, new StoredResult(requestHash, response));
+                    }
+                });
+                return response;
+            });
+        } catch (DataIntegrityViolationException | PessimisticLockingFailureException e) {
+            //Ten sam klucz zapisał w międzyczasie inny wątek lub instancja
+            log.info("Concurrent request with idempotency key {} detected", key);
+            stored = find(shard, key);
+            if (stored == null) {
+                throw new IdempotentRequestInProgressException(
+                        "Żądanie z tym kluczem Idempotency-Key jest jeszcze przetwarzane, spróbuj ponownie");
+            }
+            return replay(key, requestHash, stored);
+        }
+    }
+
+    /// Usuwa trwałe kopie starsze niż TTL; cache wygasa sam.
+    @Scheduled(fixedRateString = "${idempotency.purge-interval:1h}")
+    public void purgeExpired() {
+        Instant cutoff = clock.instant().minus(timeToLive);
+        int removed = 0;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            Integer shardRemoved = shardRouter.callOnShard(shard, false,
+                    () -> transactionTemplate.execute(status -> repository.deleteCreatedBefore(cutoff)));
+            removed += shardRemoved == null ? 0 : shardRemoved;
+        }
+        if (removed > 0) {
+            log.info("Purged {} expired idempotency keys", removed);
+        }
+    }
+
+    private CampaignResponseDto replay(String key, String requestHash, StoredResult stored) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyMismatchException(
+                    "Klucz Idempotency-Key został już użyty z inną treścią żądania");
+        }
+        log.info("Replaying campaign {} for idempotency key {}", stored.response().getId(), key);
+        return stored.response();
+    }
+
+    private StoredResult find(int shard, String key) {
+        StoredResult cached = cache.get(key, StoredResult.class);
+        if (cached != null) {
+            return cached;
+        }
+        IdempotencyRecord record = shardRouter.callOnShard(shard, true, () -> repository.findById(key))
+                .filter(r -> !r.getResponseBody().isEmpty())
+                .filter(r -> r.getCreatedAt().isAfter(clock.instant().minus(timeToLive)))
+                .orElse(null);
+        if (record == null) {
+            return null;
+        }
+        StoredResult stored = new StoredResult(record.getRequestHash(), fromJson(record.getResponseBody()));
+        cache.put(key, stored);
+        return stored;
+    }
+
+    private String hash(CampaignRequestDto request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot hash campaign request", e);
+        }
+    }
+
+    private String toJson(CampaignResponseDto response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize campaign response", e);
+        }
+    }
+
+    private CampaignResponseDto fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, CampaignResponseDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot deserialize stored campaign response", e);
+        }
+    }
+
+    private record StoredResult(String requestHash, CampaignResponseDto response) {
+    }
+}
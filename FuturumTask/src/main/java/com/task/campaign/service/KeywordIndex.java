@@ -0,0 +1,315 @@
+package com.task.campaign.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/// Niezmienny słownik słów kluczowych z indeksem prefiksowym (posortowana tablica) i trigramowym (dopasowania
+/// w środku słowa). Zmienia się wyłącznie popularność, przechowywana w drzewie przedziałowym argmax, dzięki
+/// czemu top-K dla zakresu prefiksu liczymy w O(K * log n) bez przeglądania całego zakresu.
+public final class KeywordIndex {
+
+    private static final int NGRAM_LENGTH = 3;
+
+    private final String[] keywords;
+    private final String[] keys;
+    private final int[] popularity;
+    private final int[] tree;
+    private final int leafOffset;
+
+    private final long[] ngramKeys;
+    private final int[][] ngramPostings;
+
+    public KeywordIndex(Collection<String> dictionary) {
+        String[][] entries = dictionary.stream()
+                .filter(keyword -> keyword != null && !keyword.isBlank())
+                .map(keyword -> new String[]{keyword.trim().toLowerCase(Locale.ROOT), keyword.trim()})
+                .sorted((a, b) -> a[0].compareTo(b[0]))
+                .toArray(String[][]::new);
+
+        List<String> uniqueKeys = new ArrayList<>(entries.length);
+        List<String> uniqueKeywords = new ArrayList<>(entries.length);
+        for (String[] entry : entries) {
+            if (uniqueKeys.isEmpty() || !uniqueKeys.get(uniqueKeys.size() - 1).equals(entry[0])) {
+                uniqueKeys.add(entry[0]);
+                uniqueKeywords.add(entry[1]);
+            }
+        }
+        this.keys = uniqueKeys.toArray(new String[0]);
+        this.keywords = uniqueKeywords.toArray(new String[0]);
+        this.popularity = new int[keys.length];
+
+        int offset = 1;
+        while (offset < keys.length) {
+            offset <<= 1;
+        }
+        this.leafOffset = offset;
+        this.tree = new int[2 * offset];
+        Arrays.fill(tree, -1);
+        for (int i = 0; i < keys.length; i++) {
+            tree[offset + i] = i;
+        }
+        for (int node = offset - 1; node > 0; node--) {
+            tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+        }
+
+        this.ngramKeys = distinctNgrams();
+        this.ngramPostings = buildPostings();
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    /// Zwiększa (lub zmniejsza) popularność słowa, o ile należy ono do słownika. Zapisy muszą być
+    /// serializowane przez wywołującego; odczyty mogą chwilowo widzieć nieaktualny ranking.
+    public void adjustPopularity(String keyword, int delta) {
+        int position = Arrays.binarySearch(keys, keyword.trim().toLowerCase(Locale.ROOT));
+        if (position < 0) {
+            return;
+        }
+        popularity[position] = Math.max(0, popularity[position] + delta);
+        for (int node = (leafOffset + position) >> 1; node > 0; node >>= 1) {
+            tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    /// Ustawia popularność wszystkich słów naraz - słowa spoza counts dostają 0 - i przebudowuje drzewo w O(n).
+    public void resetPopularity(Map<String, Integer> counts) {
+        Map<String, Integer> normalized = new HashMap<>();
+        counts.forEach((keyword, count) -> normalized.merge(keyword.trim().toLowerCase(Locale.ROOT), count, Integer::sum));
+        for (int i = 0; i < keys.length; i++) {
+            popularity[i] = Math.max(0, normalized.getOrDefault(keys[i], 0));
+        }
+        for (int node = leafOffset - 1; node > 0; node--) {
+            tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    /// Popularność słów używanych w kampaniach (pomija zera), klucze zapisane małymi literami.
+    public Map<String, Integer> popularity() {
+        Map<String, Integer> result = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            if (popularity[i] > 0) {
+                result.put(keys[i], popularity[i]);
+            }
+        }
+        return result;
+    }
+
+    /// Najpierw słowa zaczynające się od zapytania, potem (dla zapytań od 3 znaków) słowa zawierające je
+    /// w środku - w obu grupach od najpopularniejszych.
+    public List<String> suggest(String query, int limit) {
+        String searchQuery = query.trim().toLowerCase(Locale.ROOT);
+        List<String> result = new ArrayList<>(limit);
+        if (searchQuery.isEmpty() || limit <= 0) {
+            return result;
+        }
+        int from = lowerBound(searchQuery);
+        int to = upperBound(searchQuery, from);
+        collectTopInRange(from, to, limit, result);
+        if (result.size() < limit && searchQuery.length() >= NGRAM_LENGTH) {
+            collectInfix(searchQuery, limit - result.size(), result);
+        }
+        return result;
+    }
+
+    private void collectTopInRange(int from, int to, int limit, List<String> result) {
+        if (from >= to) {
+            return;
+        }
+        //Kandydujące przedziały [lo, hi) wraz z pozycją maksimum; każde pobranie dzieli przedział na dwa
+        int capacity = 2 * limit + 1;
+        int[] lows = new int[capacity];
+        int[] highs = new int[capacity];
+        int[] best = new int[capacity];
+        int count = 0;
+        lows[0] = from;
+        highs[0] = to;
+        best[0] = queryBest(from, to);
+        count++;
+
+        while (result.size() < limit && count > 0) {
+            int chosen = 0;
+            for (int i = 1; i < count; i++) {
+                if (better(best[i], best[chosen]) == best[i]) {
+                    chosen = i;
+                }
+            }
+            int position = best[chosen];
+            int lo = lows[chosen];
+            int hi = highs[chosen];
+            result.add(keywords[position]);
+
+            count--;
+            lows[chosen] = lows[count];
+            highs[chosen] = highs[count];
+            best[chosen] = best[count];
+            if (lo < position) {
+                lows[count] = lo;
+                highs[count] = position;
+                best[count] = queryBest(lo, position);
+                count++;
+            }
+            if (position + 1 < hi) {
+                lows[count] = position + 1;
+                highs[count] = hi;
+                best[count] = queryBest(position + 1, hi);
+                count++;
+            }
+        }
+    }
+
+    private void collectInfix(String searchQuery, int limit, List<String> result) {
+        int[] shortest = null;
+        for (int i = 0; i + NGRAM_LENGTH <= searchQuery.length(); i++) {
+            int gram = Arrays.binarySearch(ngramKeys, encodeNgram(searchQuery, i));
+            if (gram < 0) {
+                return;
+            }
+            if (shortest == null || ngramPostings[gram].length < shortest.length) {
+                shortest = ngramPostings[gram];
+            }
+        }
+
+        int[] top = new int[limit];
+        int found = 0;
+        for (int position : shortest) {
+            String key = keys[position];
+            if (key.startsWith(searchQuery) || !key.contains(searchQuery)) {
+                continue;
+            }
+            //Wstawianie do małej posortowanej tablicy top-K
+            int slot = found < limit ? found++ : limit;
+            while (slot > 0 && better(position, top[slot - 1]) == position) {
+                if (slot < limit) {
+                    top[slot] = top[slot - 1];
+                }
+                slot--;
+            }
+            if (slot < limit) {
+                top[slot] = position;
+            }
+        }
+        for (int i = 0; i < found; i++) {
+            result.add(keywords[top[i]]);
+        }
+    }
+
+    private int queryBest(int from, int to) {
+        int result = -1;
+        for (int lo = from + leafOffset, hi = to + leafOffset; lo < hi; lo >>= 1, hi >>= 1) {
+            if ((lo & 1) == 1) {
+                result = better(result, tree[lo++]);
+            }
+            if ((hi & 1) == 1) {
+                result = better(result, tree[--hi]);
+            }
+        }
+        return result;
+    }
+
+    private int better(int a, int b) {
+        if (a < 0) {
+            return b;
+        }
+        if (b < 0) {
+            return a;
+        }
+        if (popularity[a] != popularity[b]) {
+            return popularity[a] > popularity[b] ? a : b;
+        }
+        return Math.min(a, b);
+    }
+
+    private int lowerBound(String prefix) {
+        int lo = 0;
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int upperBound(String prefix, int from) {
+        int lo = from;
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].startsWith(prefix)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private long[] distinctNgrams() {
+        int total = 0;
+        for (String key : keys) {
+            total += Math.max(0, key.length() - NGRAM_LENGTH + 1);
+        }
+        long[] grams = new long[total];
+        int index = 0;
+        for (String key : keys) {
+            for (int i = 0; i + NGRAM_LENGTH <= key.length(); i++) {
+                grams[index++] = encodeNgram(key, i);
+            }
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    private int[][] buildPostings() {
+        //Dwa przebiegi: zliczenie, a potem wypełnienie - pozycje trafiają na listy rosnąco i bez duplikatów
+        int[] counts = new int[ngramKeys.length];
+        int[] lastPosition = new int[ngramKeys.length];
+        Arrays.fill(lastPosition, -1);
+        for (int position = 0; position < keys.length; position++) {
+            String key = keys[position];
+            for (int i = 0; i + NGRAM_LENGTH <= key.length(); i++) {
+                int gram = Arrays.binarySearch(ngramKeys, encodeNgram(key, i));
+                if (lastPosition[gram] != position) {
+                    lastPosition[gram] = position;
+                    counts[gram]++;
+                }
+            }
+        }
+        int[][] postings = new int[ngramKeys.length][];
+        for (int gram = 0; gram < postings.length; gram++) {
+            postings[gram] = new int[counts[gram]];
+        }
+        Arrays.fill(counts, 0);
+        for (int position = 0; position < keys.length; position++) {
+            String key = keys[position];
+            for (int i = 0; i + NGRAM_LENGTH <= key.length(); i++) {
+                int gram = Arrays.binarySearch(ngramKeys, encodeNgram(key, i));
+                int filled = counts[gram];
+                if (filled == 0 || postings[gram][filled - 1] != position) {
+                    postings[gram][counts[gram]++] = position;
+                }
+            }
+        }
+        return postings;
+    }
+
+    private static long encodeNgram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+}
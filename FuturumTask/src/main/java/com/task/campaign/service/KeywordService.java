@@ -1,80 +1,75 @@
 package com.task.campaign.service;
 
+import com.task.campaign.entity.Campaign;
+import com.task.campaign.event.CampaignChangedEvent;
+import com.task.campaign.repository.CampaignRepository;
+import com.task.config.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
+@RequiredArgsConstructor
+@Slf4j
 public class KeywordService {
-    private static final List<String> PREDEFINED_KEYWORDS = Arrays.asList(
-            // Global
-            "promotion", "sale", "new arrival", "bargain", "discount",
-            "laptops", "smartphones", "gaming", "computers", "monitors",
-            "home appliances", "electronics", "televisions", "washing machines", "refrigerators",
-            "services", "maintenance", "repair", "installation",
-            "local", "fast", "cheap", "best offer", "hot price",
+    public static final int DEFAULT_SUGGESTION_LIMIT = 10;
+    public static final int MAX_SUGGESTION_LIMIT = 50;
 
-            // Consumer Electronics
-            "tablets", "cameras", "headphones", "speakers", "wearables",
-            "smart watch", "e-reader", "projector", "drone", "VR headset",
-            "audio system", "home theater", "gaming console", "PC components", "graphics card",
-            "motherboard", "RAM", "SSD", "HDD", "power supply",
+    private final CampaignRepository campaignRepository;
+    private final ShardRouter shardRouter;
+    private final KeywordIndex keywordIndex = new KeywordIndex(PredefinedKeywords.ALL);
 
-            // Software & Services
-            "software", "antivirus", "operating system", "cloud storage", "web hosting",
-            "VPN", "graphic design", "video editing", "office suite", "programming tools",
-            "online course", "subscription", "streaming service", "app development", "IT support",
-
-            // Home & Kitchen
-            "kitchen appliances", "small appliances", "coffee maker", "blender", "microwave",
-            "vacuum cleaner", "air conditioner", "heater", "furniture", "home decor",
-            "lighting", "tools", "garden supplies", "DIY", "smart home",
-
-            // Fashion & Lifestyle
-            "clothing", "shoes", "accessories", "jewelry", "watches",
-            "handbags", "mens fashion", "womens fashion", "kids fashion", "sportswear",
-            "outdoor gear", "travel", "luggage", "beauty products", "skincare",
-
-            // Business & Office
-            "office supplies", "printers", "scanners", "stationery", "ergonomic chair",
-            "desk", "business software", "b2b services", "marketing", "accounting",
-
-            // Deals & Offers
-            "limited time offer", "clearance", "flash sale", "special deal", "exclusive",
-            "bundle deal", "free shipping", "top rated", "customer favorite", "newly listed",
-            "save big", "daily deal", "weekly special", "seasonal offer", "best value"
-    );
-
-    /// druga opcja wyszukiwania typeahdead, gdy przykładowo wpisze się "lap", to znajdzie
-    ///  słowa takie jak "laptops" oraz "displaylaptop", "overlap" itp.
-
-    /*public List<String> findKeywords(String query) {
-        if (query == null || query.trim().isEmpty()) {
+    /// Zwraca najpierw słowa zaczynające się od zapytania, a gdy jest ich mniej niż limit, również te,
+    /// które zawierają je w środku (np. "lap" znajdzie "laptops" oraz "overlap") - od najczęściej używanych w kampaniach.
+    public List<String> getTypeaheadSuggestions(String query, int limit) {
+        if (query == null || query.trim().length() < 2) {
             return new ArrayList<>();
         }
+        return keywordIndex.suggest(query, Math.max(1, Math.min(limit, MAX_SUGGESTION_LIMIT)));
+    }
 
-        String searchQuery = query.trim().toLowerCase();
-
-        List<String> matchedKeywords = new ArrayList<>();
-        for (String keyword : PREDEFINED_KEYWORDS) {
-            if (keyword.toLowerCase().contains(searchQuery)) {
-                matchedKeywords.add(keyword);
+    /// Liczy popularność słów w bazie i zastępuje nią bieżącą. Wywoływane przy starcie przez
+    /// CampaignSnapshotService - po CampaignKeywordMigration, żeby policzyć również kampanie sprzed normalizacji
+    /// słów kluczowych - albo w tle, gdy popularność odtworzona z pliku snapshotu jest starsza niż baza.
+    @Transactional(readOnly = true)
+    public void loadKeywordPopularity() {
+        //Liczniki z shardów sumujemy - to samo słowo występuje w kampaniach różnych sprzedawców
+        Map<String, Integer> counts = new HashMap<>();
+        for (List<Object[]> shardCounts : shardRouter.scatter(true, shard -> campaignRepository.countCampaignsPerKeyword())) {
+            for (Object[] row : shardCounts) {
+                counts.merge((String) row[0], ((Number) row[1]).intValue(), Integer::sum);
             }
         }
-        return matchedKeywords;
+        resetPopularity(counts);
+        log.info("Keyword index ready with {} keywords, {} of them used in campaigns", keywordIndex.size(), counts.size());
+    }
 
-    }*/
-    public List<String> getTypeaheadSuggestions(String query) {
-        if (query == null || query.trim().length() < 2) {
-            return new ArrayList<>();
+    public synchronized Map<String, Integer> popularity() {
+        return keywordIndex.popularity();
+    }
+
+    public synchronized void resetPopularity(Map<String, Integer> counts) {
+        keywordIndex.resetPopularity(counts);
+    }
+
+    @TransactionalEventListener
+    public void onCampaignChanged(CampaignChangedEvent event) {
+        adjustPopularity(event.getPreviousKeywords(), -1);
+        if (event.getCampaign() != null) {
+            adjustPopularity(event.getCampaign().getKeywords(), 1);
         }
-        String searchQuery = query.trim().toLowerCase();
-        return PREDEFINED_KEYWORDS.stream()
-                .filter(keyword -> keyword.toLowerCase().startsWith(searchQuery))
-                .collect(Collectors.toList());
     }
 
+    private synchronized void adjustPopularity(String keywords, int delta) {
+        for (String keyword : Campaign.tokenizeKeywords(keywords)) {
+            keywordIndex.adjustPopularity(keyword, delta);
+        }
+    }
 }
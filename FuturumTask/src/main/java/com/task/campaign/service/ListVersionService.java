@@ -0,0 +1,61 @@
+package com.task.campaign.service;
+
+import com.task.campaign.event.CampaignChangedEvent;
+import com.task.campaign.event.SellerBalanceChangedEvent;
+import com.task.config.datasource.ReadYourWritesWindow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/// Liczniki wersji tabel, z których powstają ETagi list kampanii i sprzedawców. Zwiększane dopiero po commicie,
+/// a czytane przed odczytem danych - odpowiedź może więc dostać starszą wersję niż jej treść (najwyżej zbędne
+/// 200 później), ale nigdy nowszą. Przy replikach listy z ETagiem czytają w oknie read-your-writes z bazy głównej
+/// (ReadScope.forAllSellers), bo nowa wersja z treścią z opóźnionej repliki utknęłaby w 304 do kolejnego zapisu.
+@Service
+@RequiredArgsConstructor
+public class ListVersionService {
+
+    //Tylko przy replikach (datasource.replica.urls)
+    private final ObjectProvider<ReadYourWritesWindow> readYourWritesWindow;
+
+    //Liczniki startują od zera po każdym restarcie, więc ETag musi też rozróżniać uruchomienia aplikacji
+    private final String instance = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicLong campaigns = new AtomicLong();
+    private final AtomicLong sellers = new AtomicLong();
+
+    public String campaignListEtag() {
+        return etag("campaigns", campaigns.get());
+    }
+
+    public String sellerListEtag() {
+        return etag("sellers", sellers.get());
+    }
+
+    /// Dla zapisów kampanii z pominięciem CampaignService (np. zapis wydatków silnika reklam).
+    public void campaignsChanged() {
+        //Okno przed nową wersją - odczyt, który ją zobaczy, trafi już do bazy głównej
+        readYourWritesWindow.ifAvailable(ReadYourWritesWindow::openForAllSellers);
+        campaigns.incrementAndGet();
+    }
+
+    @TransactionalEventListener
+    public void onCampaignChanged(CampaignChangedEvent event) {
+        campaigns.incrementAndGet();
+    }
+
+    //Listy kampanii zawierają saldo sprzedawcy, więc jego zmiana unieważnia obie
+    @TransactionalEventListener
+    public void onSellerBalanceChanged(SellerBalanceChangedEvent event) {
+        sellers.incrementAndGet();
+        campaigns.incrementAndGet();
+    }
+
+    //Słaby ETag: ta sama wersja może być wysłana jako JSON, CBOR lub Smile, z kompresją lub bez
+    private String etag(String table, long version) {
+        return "W/\"" + table + "-" + instance + "-" + version + "\"";
+    }
+}
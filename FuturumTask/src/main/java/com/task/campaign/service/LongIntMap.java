@@ -0,0 +1,116 @@
+package com.task.campaign.service;
+
+import java.util.Arrays;
+
+/// Mapa long -> int bez opakowywania (adresowanie otwarte, sondowanie liniowe). Klucze muszą być dodatnie - 0 oznacza
+/// pustą komórkę. Usuwanie przesuwa kolejne wpisy łańcucha wstecz, więc mapa nie potrzebuje znaczników usunięcia.
+/// Nie jest bezpieczna wątkowo.
+final class LongIntMap {
+
+    static final int MISSING = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int[] values = new int[INITIAL_CAPACITY];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    int get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return MISSING;
+    }
+
+    void put(long key, int value) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Key must be positive: " + key);
+        }
+        //Wypełnienie najwyżej 50%, żeby łańcuchy sondowania były krótkie
+        if (size * 2 >= keys.length) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == 0) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    /// Usuwa klucz i zwraca jego wartość albo MISSING.
+    int remove(long key) {
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != key) {
+            if (keys[slot] == 0) {
+                return MISSING;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int removed = values[slot];
+        //Wpisy za usuniętym, których właściwe miejsce leży przed luką, przesuwamy w lukę
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+            int home = slot(keys[next], mask);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = 0;
+        size--;
+        return removed;
+    }
+
+    /// Powiększa tablice z góry, żeby wstawienie expectedSize kluczy nie przebudowywało mapy po drodze.
+    void ensureCapacity(int expectedSize) {
+        int capacity = keys.length;
+        while (expectedSize * 2L >= capacity) {
+            capacity *= 2;
+        }
+        if (capacity > keys.length) {
+            resize(capacity);
+        }
+    }
+
+    void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+    }
+
+    /// Przybliżony rozmiar tablic w bajtach.
+    long footprintBytes() {
+        return 8L * keys.length + 4L * values.length;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        //Mieszanie (stała z Fibonacci hashing), bo id kampanii są kolejnymi liczbami
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
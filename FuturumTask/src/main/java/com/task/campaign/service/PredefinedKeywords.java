@@ -0,0 +1,50 @@
+package com.task.campaign.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+//Słownik podpowiedzi słów kluczowych; współdzielony z wariantem reaktywnym (moduł reactive)
+public final class PredefinedKeywords {
+
+    public static final List<String> ALL = Arrays.asList(
+            // Global
+            "promotion", "sale", "new arrival", "bargain", "discount",
+            "laptops", "smartphones", "gaming", "computers", "monitors",
+            "home appliances", "electronics", "televisions", "washing machines", "refrigerators",
+            "services", "maintenance", "repair", "installation",
+            "local", "fast", "cheap", "best offer", "hot price",
+
+            // Consumer Electronics
+            "tablets", "cameras", "headphones", "speakers", "wearables",
+            "smart watch", "e-reader", "projector", "drone", "VR headset",
+            "audio system", "home theater", "gaming console", "PC components", "graphics card",
+            "motherboard", "RAM", "SSD", "HDD", "power supply",
+
+            // Software & Services
+            "software", "antivirus", "operating system", "cloud storage", "web hosting",
+            "VPN", "graphic design", "video editing", "office suite", "programming tools",
+            "online course", "subscription", "streaming service", "app development", "IT support",
+
+            // Home & Kitchen
+            "kitchen appliances", "small appliances", "coffee maker", "blender", "microwave",
+            "vacuum cleaner", "air conditioner", "heater", "furniture", "home decor",
+            "lighting", "tools", "garden supplies", "DIY", "smart home",
+
+            // Fashion & Lifestyle
+            "clothing", "shoes", "accessories", "jewelry", "watches",
+            "handbags", "mens fashion", "womens fashion", "kids fashion", "sportswear",
+            "outdoor gear", "travel", "luggage", "beauty products", "skincare",
+
+            // Business & Office
+            "office supplies", "printers", "scanners", "stationery", "ergonomic chair",
+            "desk", "business software", "b2b services", "marketing", "accounting",
+
+            // Deals & Offers
+            "limited time offer", "clearance", "flash sale", "special deal", "exclusive",
+            "bundle deal", "free shipping", "top rated", "customer favorite", "newly listed",
+            "save big", "daily deal", "weekly special", "seasonal offer", "best value"
+    );
+
+    private PredefinedKeywords() {
+    }
+}
@@ -1,14 +1,24 @@
 package com.task.campaign.service;
 
+import com.task.campaign.dto.BalanceTransactionDto;
 import com.task.campaign.dto.SellerDto;
+import com.task.campaign.entity.BalanceTransaction;
 import com.task.campaign.entity.Seller;
+import com.task.campaign.repository.BalanceTransactionRepository;
 import com.task.campaign.repository.SellerRepository;
+import com.task.config.CacheConfig;
+import com.task.config.datasource.ReadScope;
+import com.task.config.sharding.ShardRouter;
 import com.task.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -17,7 +27,11 @@ import java.util.stream.Collectors;
 @Slf4j
 public class SellerService {
 
+    public static final int MAX_HISTORY_SIZE = 500;
+
     private final SellerRepository sellerRepository;
+    private final BalanceTransactionRepository balanceTransactionRepository;
+    private final ShardRouter shardRouter;
 
     private SellerDto mapToSellerDto(Seller seller) {
         if (seller == null) {
@@ -32,23 +46,51 @@ public class SellerService {
     }
 
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.SELLER_LIST, key = "'all'")
     public List<SellerDto> getAllSellers() {
         log.info("Fetching all sellers");
-        List<Seller> sellers = sellerRepository.findAll();
-        log.info("Found {} sellers in database", sellers.size());
-        return sellers.stream()
-                .map(this::mapToSellerDto)
+        List<SellerDto> sellers = ReadScope.forAllSellers(() -> shardRouter.scatter(true, shard -> sellerRepository
+                        .findAll().stream()
+                        .map(this::mapToSellerDto)
+                        .toList())).stream()
+                .flatMap(Collection::stream)
+                .sorted(Comparator.comparing(SellerDto::getId))
                 .collect(Collectors.toList());
+        log.info("Found {} sellers in database", sellers.size());
+        return sellers;
     }
 
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.SELLERS, key = "#id")
     public SellerDto getSellerById(Long id) {
         log.info("Fetching seller with ID: {}", id);
-        return sellerRepository.findById(id)
-                .map(this::mapToSellerDto)
+        return ReadScope.forSeller(id, () -> shardRouter.callOnShard(shardRouter.shardOfSeller(id), true,
+                        () -> sellerRepository.findById(id).map(this::mapToSellerDto)))
                 .orElseThrow(() -> {
                     log.warn("Seller not found with ID: {}", id);
                     return new ResourceNotFoundException("Seller", "id", id);
                 });
     }
-}
\ No newline at end of file
+
+    @Transactional(readOnly = true)
+    public List<BalanceTransactionDto> getBalanceHistory(Long sellerId, Long beforeId, int limit) {
+        log.info("Fetching balance history of seller ID: {} before transaction ID: {}", sellerId, beforeId);
+        List<BalanceTransaction> history = ReadScope.forSeller(sellerId, () -> shardRouter.callOnShard(
+                shardRouter.shardOfSeller(sellerId), true, () -> {
+                    if (!sellerRepository.existsById(sellerId)) {
+                        throw new ResourceNotFoundException("Seller", "id", sellerId);
+                    }
+                    return balanceTransactionRepository.findHistory(sellerId, beforeId,
+                            Limit.of(Math.max(1, Math.min(limit, MAX_HISTORY_SIZE))));
+                }));
+        return history.stream()
+                .map(transaction -> new BalanceTransactionDto(
+                        transaction.getId(),
+                        transaction.getCampaignId(),
+                        transaction.getType(),
+                        transaction.getAmount(),
+                        transaction.getBalanceAfter(),
+                        transaction.getCreatedAt()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,48 @@
+package com.task.campaign.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/// Odczyt pliku snapshotu zmapowanego do pamięci. Tablice kopiowane są hurtowo z widoków LongBuffer / IntBuffer
+/// bufora, bez pośrednich kopii na stercie. Błędny format kończy się IllegalStateException.
+final class SnapshotInput {
+
+    private final ByteBuffer buffer;
+
+    SnapshotInput(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    int readInt() {
+        return buffer.getInt();
+    }
+
+    long readLong() {
+        return buffer.getLong();
+    }
+
+    /// Liczba elementów lub długość - ujemna albo większa niż reszta pliku oznacza uszkodzony plik.
+    int readCount(int bytesPerElement) {
+        int count = buffer.getInt();
+        if (count < 0 || (long) count * bytesPerElement > buffer.remaining()) {
+            throw new IllegalStateException("Invalid element count " + count + " at offset " + buffer.position());
+        }
+        return count;
+    }
+
+    String readString() {
+        byte[] bytes = new byte[readCount(1)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    void readLongs(long[] target, int length) {
+        buffer.asLongBuffer().get(target, 0, length);
+        buffer.position(buffer.position() + length * Long.BYTES);
+    }
+
+    void readInts(int[] target, int length) {
+        buffer.asIntBuffer().get(target, 0, length);
+        buffer.position(buffer.position() + length * Integer.BYTES);
+    }
+}
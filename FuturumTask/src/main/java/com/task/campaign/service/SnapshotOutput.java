@@ -0,0 +1,91 @@
+package com.task.campaign.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/// Zapis pliku snapshotu przez bufor bezpośredni: tablice prymitywów trafiają do niego hurtowo (widok LongBuffer
+/// / IntBuffer), a suma kontrolna CRC32C liczona jest po drodze i dopisywana na końcu przez finish().
+final class SnapshotOutput {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CRC32C checksum = new CRC32C();
+    private long bytesWritten;
+
+    SnapshotOutput(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    long bytesWritten() {
+        return bytesWritten + buffer.position();
+    }
+
+    void writeInt(int value) throws IOException {
+        ensureRemaining(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    void writeLong(long value) throws IOException {
+        ensureRemaining(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+        for (int offset = 0; offset < bytes.length; ) {
+            ensureRemaining(1);
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    void writeLongs(long[] values, int from, int to) throws IOException {
+        while (from < to) {
+            ensureRemaining(Long.BYTES);
+            int length = Math.min(buffer.remaining() / Long.BYTES, to - from);
+            buffer.asLongBuffer().put(values, from, length);
+            buffer.position(buffer.position() + length * Long.BYTES);
+            from += length;
+        }
+    }
+
+    void writeInts(int[] values, int from, int to) throws IOException {
+        while (from < to) {
+            ensureRemaining(Integer.BYTES);
+            int length = Math.min(buffer.remaining() / Integer.BYTES, to - from);
+            buffer.asIntBuffer().put(values, from, length);
+            buffer.position(buffer.position() + length * Integer.BYTES);
+            from += length;
+        }
+    }
+
+    /// Dopisuje sumę kontrolną wszystkich wcześniejszych bajtów i zapisuje bufor.
+    void finish() throws IOException {
+        flush();
+        buffer.putLong(checksum.getValue());
+        flush();
+    }
+
+    private void ensureRemaining(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        checksum.update(buffer.duplicate());
+        bytesWritten += buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
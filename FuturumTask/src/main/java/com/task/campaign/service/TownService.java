@@ -1,26 +1,50 @@
 package com.task.campaign.service;
 
+import com.task.campaign.dto.TownDto;
 import org.springframework.stereotype.Service;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class TownService {
-    private static final List<String> PREDEFINED_TOWNS = Arrays.asList(
-            "Warszawa",
-            "Kraków",
-            "Łódź",
-            "Wrocław",
-            "Poznań",
-            "Gdańsk",
-            "Szczecin",
-            "Bydgoszcz",
-            "Lublin",
-            "Katowice"
+    private static final List<TownDto> PREDEFINED_TOWNS = Arrays.asList(
+            new TownDto("Warszawa", 52.2297, 21.0122),
+            new TownDto("Kraków", 50.0647, 19.9450),
+            new TownDto("Łódź", 51.7592, 19.4560),
+            new TownDto("Wrocław", 51.1079, 17.0385),
+            new TownDto("Poznań", 52.4064, 16.9252),
+            new TownDto("Gdańsk", 54.3520, 18.6466),
+            new TownDto("Szczecin", 53.4285, 14.5528),
+            new TownDto("Bydgoszcz", 53.1235, 18.0084),
+            new TownDto("Lublin", 51.2465, 22.5684),
+            new TownDto("Katowice", 50.2649, 19.0238)
     );
 
+    private static final List<String> PREDEFINED_TOWN_NAMES = PREDEFINED_TOWNS.stream()
+            .map(TownDto::getName)
+            .collect(Collectors.toUnmodifiableList());
+
+    private static final Map<String, TownDto> TOWNS_BY_NAME = PREDEFINED_TOWNS.stream()
+            .collect(Collectors.toUnmodifiableMap(town -> town.getName().toLowerCase(Locale.ROOT), Function.identity()));
+
     public List<String> getAllPredefinedTowns() {
+        return PREDEFINED_TOWN_NAMES;
+    }
+
+    public List<TownDto> getAllPredefinedTownsWithCoordinates() {
         return PREDEFINED_TOWNS;
     }
+
+    public Optional<TownDto> findTown(String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(TOWNS_BY_NAME.get(name.trim().toLowerCase(Locale.ROOT)));
+    }
 }
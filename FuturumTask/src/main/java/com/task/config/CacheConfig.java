@@ -0,0 +1,73 @@
+package com.task.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.task.config.cache.LocalRemoteCacheClient;
+import com.task.config.cache.RemoteCacheClient;
+import com.task.config.cache.TwoTierCache;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+//Cache sprawdzany przed otwarciem transakcji, żeby trafienie nie pobierało połączenia z puli
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+
+    public static final String SELLERS = "sellers";
+    public static final String SELLER_LIST = "sellerList";
+    public static final String CAMPAIGNS = "campaigns";
+    public static final String IDEMPOTENCY = "idempotency";
+
+    @Bean
+    @ConditionalOnProperty(name = "cache.second-tier", havingValue = "local")
+    public RemoteCacheClient localRemoteCacheClient(@Value("${cache.time-to-live}") Duration timeToLive) {
+        return new LocalRemoteCacheClient(timeToLive);
+    }
+
+    @Bean
+    public CacheManager cacheManager(@Value("${cache.maximum-size}") long maximumSize,
+                                     @Value("${cache.time-to-live}") Duration timeToLive,
+                                     @Value("${idempotency.cache.maximum-size}") long idempotencyMaximumSize,
+                                     @Value("${idempotency.time-to-live}") Duration idempotencyTimeToLive,
+                                     ObjectProvider<RemoteCacheClient> remoteCacheClient) {
+        RemoteCacheClient remote = remoteCacheClient.getIfAvailable();
+        List<Cache> caches = Stream.concat(
+                //Bez drugiego poziomu także TwoTierCache - chroni przed wstawieniem stanu sprzed unieważnienia
+                Stream.of(SELLERS, SELLER_LIST, CAMPAIGNS)
+                        .map(name -> (Cache) new TwoTierCache(caffeineCache(name, maximumSize, timeToLive), remote)),
+                //Tylko lokalnie - trwałą kopią wyników jest tabela idempotency_keys
+                Stream.of(caffeineCache(IDEMPOTENCY, idempotencyMaximumSize, idempotencyTimeToLive)))
+                .toList();
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(caches);
+        return cacheManager;
+    }
+
+    private static CaffeineCache caffeineCache(String name, long maximumSize, Duration timeToLive) {
+        return new CaffeineCache(name, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build(), false);
+    }
+
+    //Metryki trafień, chybień i usunięć lokalnego poziomu TwoTierCache
+    @Bean
+    public CacheMeterBinderProvider<TwoTierCache> twoTierCacheMeterBinderProvider() {
+        return (cache, tags) -> new CaffeineCacheMetrics<>(cache.getLocal().getNativeCache(), cache.getName(), tags);
+    }
+}
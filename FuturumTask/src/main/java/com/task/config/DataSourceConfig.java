@@ -0,0 +1,77 @@
+package com.task.config;
+
+import com.task.config.datasource.ReadYourWritesWindow;
+import com.task.config.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+//Repliki do odczytu - włączane przez datasource.replica.urls (bez tej właściwości jedna pula z autokonfiguracji).
+//Transakcje @Transactional(readOnly = true) czytają z replik, pozostałe (i Flyway) idą do bazy głównej
+@Slf4j
+@Configuration
+@ConditionalOnExpression("'${datasource.replica.urls:}' != ''")
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesWindow readYourWritesWindow(
+            @Value("${datasource.read-your-writes-window:2s}") Duration window) {
+        return new ReadYourWritesWindow(window);
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaDataSource(HikariDataSource primaryDataSource,
+                                                      ReadYourWritesWindow readYourWritesWindow,
+                                                      MeterRegistry meterRegistry,
+                                                      @Value("${datasource.replica.urls}") List<String> urls,
+                                                      @Value("${datasource.replica.maximum-pool-size:10}") int poolSize) {
+        List<HikariDataSource> replicas = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            //Te same ustawienia (użytkownik, timeouty, właściwości sterownika) co pula bazy głównej
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setJdbcUrl(urls.get(i).trim());
+            config.setPoolName("replica-" + i);
+            config.setMaximumPoolSize(poolSize);
+            if (config.getMinimumIdle() > poolSize) {
+                config.setMinimumIdle(poolSize);
+            }
+            config.setReadOnly(true);
+            config.setMetricRegistry(null);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new HikariDataSource(config));
+        }
+        log.info("Routing read-only transactions to {} replica(s)", replicas.size());
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, readYourWritesWindow);
+    }
+
+    //Fizyczne połączenie pobierane dopiero przy pierwszym zapytaniu, gdy transakcja (i jej readOnly) już trwa
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaDataSource);
+    }
+}
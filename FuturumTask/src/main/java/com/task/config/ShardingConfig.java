@@ -0,0 +1,77 @@
+package com.task.config;
+
+import com.task.config.sharding.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+//Shardy - włączane przez sharding.urls (adres JDBC każdego shardu, kolejność wyznacza numer shardu).
+//Schemat każdego shardu zakłada Flyway z placeholderami shardIndex i shardCount; Hibernate go tylko sprawdza
+@Slf4j
+@Configuration
+@ConditionalOnExpression("'${sharding.urls:}' != ''")
+public class ShardingConfig {
+
+    //Wspólne ustawienia pul shardów (spring.datasource.hikari.*)
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariConfig shardPoolTemplate() {
+        return new HikariConfig();
+    }
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(HikariConfig shardPoolTemplate,
+                                                         DataSourceProperties properties,
+                                                         MeterRegistry meterRegistry,
+                                                         @Value("${sharding.urls}") List<String> urls,
+                                                         @Value("${sharding.flyway-locations:classpath:db/migration}")
+                                                         String[] flywayLocations,
+                                                         @Value("${datasource.replica.urls:}") String replicaUrls) {
+        if (!replicaUrls.isBlank()) {
+            throw new IllegalStateException("sharding.urls and datasource.replica.urls cannot be used together");
+        }
+        List<HikariDataSource> shards = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            shardPoolTemplate.copyStateTo(config);
+            config.setJdbcUrl(urls.get(i).trim());
+            config.setUsername(properties.determineUsername());
+            config.setPassword(properties.determinePassword());
+            config.setPoolName("shard-" + i);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            HikariDataSource shard = new HikariDataSource(config);
+            Flyway.configure()
+                    .dataSource(shard)
+                    .locations(flywayLocations)
+                    .placeholders(Map.of("shardIndex", String.valueOf(i), "shardCount", String.valueOf(urls.size())))
+                    .load()
+                    .migrate();
+            shards.add(shard);
+        }
+        log.info("Campaign data sharded by seller across {} shards", shards.size());
+        return new ShardRoutingDataSource(shards);
+    }
+
+    //Fizyczne połączenie pobierane przy pierwszym zapytaniu, gdy shard transakcji jest już wskazany
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+}
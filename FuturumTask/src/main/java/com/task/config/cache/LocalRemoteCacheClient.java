@@ -0,0 +1,68 @@
+package com.task.config.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/// Zastępnik rozproszonego cache działający w pamięci procesu - zachowuje się jak zdalny serwer z TTL,
+/// ale nie wymaga infrastruktury. Węzły współdzielące jedną instancję dostają unieważnienia synchronicznie.
+public class LocalRemoteCacheClient implements RemoteCacheClient {
+
+    private final Map<String, Map<Object, Entry>> caches = new ConcurrentHashMap<>();
+    private final Map<String, List<Consumer<Object>>> listeners = new ConcurrentHashMap<>();
+    private final long timeToLiveNanos;
+
+    public LocalRemoteCacheClient(Duration timeToLive) {
+        this.timeToLiveNanos = timeToLive.toNanos();
+    }
+
+    @Override
+    public Object get(String cacheName, Object key) {
+        Map<Object, Entry> cache = caches.get(cacheName);
+        Entry entry = cache == null ? null : cache.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.createdAt() > timeToLiveNanos) {
+            cache.remove(key, entry);
+            return null;
+        }
+        return entry.value();
+    }
+
+    @Override
+    public void put(String cacheName, Object key, Object value) {
+        caches.computeIfAbsent(cacheName, name -> new ConcurrentHashMap<>())
+                .put(key, new Entry(value, System.nanoTime()));
+    }
+
+    @Override
+    public void evict(String cacheName, Object key) {
+        notifyListeners(cacheName, key);
+        Map<Object, Entry> cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.remove(key);
+        }
+    }
+
+    @Override
+    public void clear(String cacheName) {
+        notifyListeners(cacheName, null);
+        caches.remove(cacheName);
+    }
+
+    @Override
+    public void subscribe(String cacheName, Consumer<Object> listener) {
+        listeners.computeIfAbsent(cacheName, name -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    private void notifyListeners(String cacheName, Object key) {
+        listeners.getOrDefault(cacheName, List.of()).forEach(listener -> listener.accept(key));
+    }
+
+    private record Entry(Object value, long createdAt) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.task.config.cache;
+
+import java.util.function.Consumer;
+
+/// Drugi (współdzielony między węzłami) poziom cache. Implementacja produkcyjna powinna serializować wartości,
+/// ustawiać TTL po stronie serwera cache i rozsyłać unieważnienia do wszystkich węzłów (np. przez pub/sub);
+/// lokalna LocalRemoteCacheClient służy do uruchomień i testów bez niego.
+public interface RemoteCacheClient {
+
+    /// Zwraca null, gdy klucza nie ma w cache.
+    Object get(String cacheName, Object key);
+
+    void put(String cacheName, Object key, Object value);
+
+    void evict(String cacheName, Object key);
+
+    void clear(String cacheName);
+
+    /// Odbiorca dostaje klucz każdego evict (null przy clear) z dowolnego węzła, także z tego, zanim wpis zniknie
+    /// z poziomu zdalnego - węzeł, który właśnie go zapisuje, zdąży to zrobić przed usunięciem.
+    void subscribe(String cacheName, Consumer<Object> listener);
+}
@@ -0,0 +1,184 @@
+package com.task.config.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/// Lokalny Caffeine przed opcjonalnym, współdzielonym RemoteCacheClient (null - tylko poziom lokalny). Odczyt:
+/// lokalnie, potem zdalnie (z zapisem lokalnym), na końcu loader. Zapis trafia do obu poziomów, a unieważnienie
+/// jest rozsyłane przez RemoteCacheClient do lokalnych poziomów wszystkich węzłów.
+///
+/// Odczyt, który minął się z cache przed unieważnieniem, mógłby po nim wstawić stan sprzed zmiany. Dlatego każdy
+/// klucz ma numer unieważnienia (wspólny dla klucza z tego samego pasa): chybienie zapamiętuje go w wątku, a put
+/// wykonany po nim przez ten wątek zapisuje wartość tylko wtedy, gdy numer się nie zmienił. Sprawdzenie i zapis
+/// oraz podbicie numeru i usunięcie wpisu odbywają się pod blokadą pasa, więc nie mogą się przeplatać.
+public class TwoTierCache implements Cache {
+
+    private static final int STRIPES = 64;
+
+    private final CaffeineCache local;
+    private final RemoteCacheClient remote;
+    private final Object[] locks = new Object[STRIPES];
+    //Zmieniane pod blokadą pasa, czytane bez niej
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    private final AtomicLong clearGeneration = new AtomicLong();
+    private final ThreadLocal<PendingLoad> pendingLoad = new ThreadLocal<>();
+
+    public TwoTierCache(CaffeineCache local, RemoteCacheClient remote) {
+        this.local = local;
+        this.remote = remote;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        if (remote != null) {
+            //Także unieważnienia z tego węzła - zdalny poziom informuje przed usunięciem wpisu u siebie
+            remote.subscribe(getName(), key -> {
+                if (key == null) {
+                    clearLocal();
+                } else {
+                    evictLocal(key);
+                }
+            });
+        }
+    }
+
+    public CaffeineCache getLocal() {
+        return local;
+    }
+
+    @Override
+    public String getName() {
+        return local.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper cached = local.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        //Numer sprzed odczytu zdalnego i z bazy - unieważnienie w ich trakcie odrzuci późniejszy zapis
+        PendingLoad load = startLoad(key);
+        Object value = remote == null ? null : remote.get(getName(), key);
+        if (value == null) {
+            pendingLoad.set(load);
+            return null;
+        }
+        putIfCurrent(load, key, value, true, false);
+        return new SimpleValueWrapper(value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper cached = get(key);
+        Object value = cached == null ? null : cached.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    //Unieważnienie klucza czeka na zakończenie ładowania w Caffeine i dopiero wtedy usuwa wynik z poziomu lokalnego
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return local.get(key, () -> {
+            PendingLoad load = startLoad(key);
+            Object value = remote == null ? null : remote.get(getName(), key);
+            if (value != null) {
+                return (T) value;
+            }
+            T loaded = valueLoader.call();
+            if (loaded != null && remote != null) {
+                putIfCurrent(load, key, loaded, false, true);
+            }
+            return loaded;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        PendingLoad load = pendingLoad.get();
+        pendingLoad.remove();
+        if (load != null && !load.key().equals(key)) {
+            load = null;
+        }
+        putIfCurrent(load, key, value, true, true);
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictLocal(key);
+        if (remote != null) {
+            remote.evict(getName(), key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        clearLocal();
+        if (remote != null) {
+            remote.clear(getName());
+        }
+    }
+
+    private PendingLoad startLoad(Object key) {
+        return new PendingLoad(key, generations.get(stripe(key)), clearGeneration.get());
+    }
+
+    //Zapis zdalny także pod blokadą - rozesłane unieważnienie czeka na niego i dopiero potem usuwa wpis zdalnie
+    private void putIfCurrent(PendingLoad load, Object key, Object value, boolean toLocal, boolean toRemote) {
+        synchronized (lock(key)) {
+            if (load != null && (load.generation() != generations.get(stripe(key))
+                    || load.clearGeneration() != clearGeneration.get())) {
+                return;
+            }
+            if (toLocal) {
+                local.put(key, value);
+            }
+            if (toRemote && remote != null && value != null) {
+                remote.put(getName(), key, value);
+            }
+        }
+    }
+
+    private void evictLocal(Object key) {
+        synchronized (lock(key)) {
+            generations.incrementAndGet(stripe(key));
+            local.evict(key);
+        }
+    }
+
+    //Po podbiciu numeru każdy pas jest raz blokowany: zapisy rozpoczęte przed nim kończą się przed czyszczeniem
+    private void clearLocal() {
+        clearGeneration.incrementAndGet();
+        for (Object lock : locks) {
+            synchronized (lock) {
+                //Tylko bariera dla trwających zapisów
+            }
+        }
+        local.clear();
+    }
+
+    private Object lock(Object key) {
+        return locks[stripe(key)];
+    }
+
+    private static int stripe(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    private record PendingLoad(Object key, long generation, long clearGeneration) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.task.config.datasource;
+
+import java.util.function.Supplier;
+
+/// Czego dotyczy odczyt bieżącego wątku - sprzedawcy, kampanii albo listy wszystkich sprzedawców. Ustawiany przez
+/// serwisy wokół odczytów, czytany przez ReplicaRoutingDataSource przy pobieraniu połączenia: tylko odczyt objęty
+/// otwartym oknem ReadYourWritesWindow trafia do bazy głównej. Odczyt bez zakresu zawsze idzie do repliki.
+/// Zakres wszystkich sprzedawców obejmuje też zagnieżdżone odczyty jednego sprzedawcy lub kampanii.
+public final class ReadScope {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private ReadScope() {
+    }
+
+    public static <T> T forSeller(Long sellerId, Supplier<T> read) {
+        return within(new Scope(sellerId, null, false), read);
+    }
+
+    public static <T> T forCampaign(Long campaignId, Supplier<T> read) {
+        return within(new Scope(null, campaignId, false), read);
+    }
+
+    public static <T> T forAllSellers(Supplier<T> read) {
+        return within(new Scope(null, null, true), read);
+    }
+
+    /// Zakres bieżącego wątku albo null, gdy odczyt nie został przypisany.
+    static Scope current() {
+        return CURRENT.get();
+    }
+
+    private static <T> T within(Scope scope, Supplier<T> read) {
+        Scope previous = CURRENT.get();
+        if (previous == null || !previous.allSellers()) {
+            CURRENT.set(scope);
+        }
+        try {
+            return read.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    record Scope(Long sellerId, Long campaignId, boolean allSellers) {
+    }
+}
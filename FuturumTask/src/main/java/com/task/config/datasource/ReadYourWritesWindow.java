@@ -0,0 +1,71 @@
+package com.task.config.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.task.campaign.event.CampaignChangedEvent;
+import com.task.campaign.event.SellerBalanceChangedEvent;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/// Okna po zmianie salda lub kampanii, w których odczyty tego sprzedawcy i tej kampanii (ReadScope) idą do bazy
+/// głównej zamiast do replik - klient, który właśnie zapisał, nie zobaczy na opóźnionej replice starego salda.
+/// Okno jest osobne dla każdego sprzedawcy i kampanii, więc zapisy jednego sprzedawcy nie kierują do bazy głównej
+/// odczytów pozostałych. Otwierane przed commitem, żeby odczyt tuż po commicie nie trafił do repliki; wycofana
+/// transakcja kosztuje tylko kilka odczytów z bazy głównej.
+public class ReadYourWritesWindow {
+
+    private final long windowNanos;
+    //id -> koniec okna (System.nanoTime); wpisy znikają same po długości okna
+    private final Cache<Long, Long> sellers;
+    private final Cache<Long, Long> campaigns;
+    //Okno zapisów bez zdarzenia sprzedawcy lub kampanii (np. wydatków silnika reklam) - tylko dla list wszystkich
+    private volatile long allSellersUntil = System.nanoTime();
+
+    public ReadYourWritesWindow(Duration window) {
+        this.windowNanos = window.toNanos();
+        this.sellers = Caffeine.newBuilder().expireAfterWrite(window).build();
+        this.campaigns = Caffeine.newBuilder().expireAfterWrite(window).build();
+    }
+
+    /// Listy obejmujące wszystkich sprzedawców (lista sprzedawców, listy kampanii z ETagiem) są objęte oknem dowolnego
+    /// sprzedawcy - ich ETag zmienia się po każdym zapisie, więc nie mogą wtedy czytać opóźnionej repliki.
+    boolean isOpen(ReadScope.Scope scope) {
+        long now = System.nanoTime();
+        if (scope.allSellers()) {
+            return now - allSellersUntil < 0 || sellers.asMap().values().stream().anyMatch(until -> now - until < 0);
+        }
+        return isOpen(sellers, scope.sellerId(), now) || isOpen(campaigns, scope.campaignId(), now);
+    }
+
+    /// Dla zapisów z pominięciem zdarzeń kampanii i salda - wołane przed podbiciem wersji list.
+    public void openForAllSellers() {
+        allSellersUntil = System.nanoTime() + windowNanos;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onBalanceChanged(SellerBalanceChangedEvent event) {
+        open(sellers, event.getSellerId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onCampaignChanged(CampaignChangedEvent event) {
+        open(sellers, event.getSellerId());
+        open(campaigns, event.getCampaignId());
+    }
+
+    private void open(Cache<Long, Long> windows, Long id) {
+        if (id != null) {
+            windows.put(id, System.nanoTime() + windowNanos);
+        }
+    }
+
+    private static boolean isOpen(Cache<Long, Long> windows, Long id, long now) {
+        if (id == null) {
+            return false;
+        }
+        Long until = windows.getIfPresent(id);
+        return until != null && now - until < 0;
+    }
+}
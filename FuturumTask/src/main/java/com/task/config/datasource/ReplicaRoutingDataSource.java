@@ -0,0 +1,63 @@
+package com.task.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/// Wybór puli przy pobieraniu połączenia: transakcje readOnly = true rozdzielane po replikach (round robin),
+/// a pozostałe oraz odczyty sprzedawcy lub kampanii (ReadScope) w ich oknie read-your-writes - baza główna.
+/// Atrybut readOnly brany jest z bieżącej transakcji, bo Hibernate zwalniający połączenie po transakcji nie ustawia
+/// go na połączeniu.
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final String PRIMARY = "primary";
+
+    private final List<HikariDataSource> replicas;
+    private final ReadYourWritesWindow readYourWritesWindow;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(HikariDataSource primary,
+                                    List<HikariDataSource> replicas,
+                                    ReadYourWritesWindow readYourWritesWindow) {
+        this.replicas = replicas;
+        this.readYourWritesWindow = readYourWritesWindow;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        ReadScope.Scope scope = ReadScope.current();
+        if (scope != null && readYourWritesWindow.isOpen(scope)) {
+            return PRIMARY;
+        }
+        return Math.floorMod(next.getAndIncrement(), replicas.size());
+    }
+
+    /// Pule replik należą do tego obiektu; pulę bazy głównej zamyka Spring (osobny bean).
+    @Override
+    public void destroy() {
+        for (HikariDataSource replica : replicas) {
+            log.info("Closing replica pool {}", replica.getPoolName());
+            replica.close();
+        }
+    }
+}
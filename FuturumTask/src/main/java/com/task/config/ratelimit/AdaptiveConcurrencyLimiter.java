@@ -0,0 +1,171 @@
+package com.task.config.ratelimit;
+
+import com.task.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/// Globalny limit równoległych zapisów kampanii, który odrzuca nadmiar z 429 zamiast kolejkować go przed pulą
+/// połączeń. Co adjust-interval limit maleje multiplikatywnie, gdy p99 zapisów z ostatnich kilku okresów albo
+/// średnie oczekiwanie na połączenie z puli (hikaricp.connections.acquire) w ostatnim okresie przekracza próg,
+/// a rośnie o 1, gdy w okresie był w pełni wykorzystany (AIMD). Przyjęcie zapisu to jeden compareAndSet.
+@Slf4j
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final int PERCENTILE_WINDOWS = 3;
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private final long poolWaitThresholdNanos;
+    private final long retryAfterSeconds;
+    private final MeterRegistry meterRegistry;
+    private final Timer latency;
+    private final Counter rejected;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+    private volatile boolean limitReached;
+    //Stan korekt - tylko wątek harmonogramu: liczniki puli z poprzedniej korekty i liczba korekt, przez które p99
+    //obejmuje jeszcze zapisy sprzed ostatniego obniżenia limitu (okno percentyla jest dłuższe niż okres)
+    private final Map<Meter.Id, double[]> previousPoolWaits = new HashMap<>();
+    private int latencyHoldOff;
+
+    public AdaptiveConcurrencyLimiter(MeterRegistry meterRegistry,
+                                      @Value("${ratelimit.enabled:true}") boolean enabled,
+                                      @Value("${ratelimit.concurrency.initial-limit:20}") int initialLimit,
+                                      @Value("${ratelimit.concurrency.min-limit:2}") int minLimit,
+                                      @Value("${ratelimit.concurrency.max-limit:200}") int maxLimit,
+                                      @Value("${ratelimit.concurrency.backoff-ratio:0.9}") double backoffRatio,
+                                      @Value("${ratelimit.concurrency.latency-threshold:500ms}") Duration latencyThreshold,
+                                      @Value("${ratelimit.concurrency.pool-wait-threshold:100ms}") Duration poolWaitThreshold,
+                                      @Value("${ratelimit.concurrency.adjust-interval:1s}") Duration adjustInterval) {
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.poolWaitThresholdNanos = poolWaitThreshold.toNanos();
+        this.retryAfterSeconds = Math.max(1, adjustInterval.toSeconds());
+        this.meterRegistry = meterRegistry;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+
+        //p99 z okna przesuwanego co adjust-interval i obejmującego PERCENTILE_WINDOWS okresów
+        this.latency = Timer.builder("ratelimit.write.latency")
+                .description("Latency of admitted campaign writes")
+                .publishPercentiles(0.99)
+                .distributionStatisticExpiry(adjustInterval.multipliedBy(PERCENTILE_WINDOWS))
+                .distributionStatisticBufferLength(PERCENTILE_WINDOWS)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("ratelimit.rejected")
+                .tag("reason", "overload")
+                .description("Write requests shed because the concurrency limit was reached")
+                .register(meterRegistry);
+        Gauge.builder("ratelimit.concurrency.limit", this, limiter -> limiter.limit)
+                .description("Current limit of concurrent campaign writes")
+                .register(meterRegistry);
+        Gauge.builder("ratelimit.concurrency.in.flight", inFlight, AtomicInteger::get)
+                .description("Campaign writes in progress")
+                .register(meterRegistry);
+    }
+
+    /// Wykonuje zapis, jeśli mieści się w limicie, albo rzuca RateLimitExceededException.
+    public <T> T call(Supplier<T> write) {
+        if (!enabled) {
+            return write.get();
+        }
+        if (!tryAcquire()) {
+            rejected.increment();
+            throw new RateLimitExceededException("Serwer jest przeciążony, spróbuj ponownie za " + retryAfterSeconds +
+                    " s.", retryAfterSeconds);
+        }
+        long start = System.nanoTime();
+        try {
+            return write.get();
+        } finally {
+            latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                limitReached = true;
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                if (current + 1 >= limit) {
+                    limitReached = true;
+                }
+                return true;
+            }
+        }
+    }
+
+    @Scheduled(fixedRateString = "${ratelimit.concurrency.adjust-interval:1s}")
+    public void adjustLimit() {
+        if (!enabled) {
+            return;
+        }
+        double p99Nanos = p99Nanos();
+        double poolWaitNanos = poolWaitSinceLastAdjustment();
+        boolean slow = p99Nanos > latencyThresholdNanos && latencyHoldOff == 0;
+        latencyHoldOff = Math.max(0, latencyHoldOff - 1);
+        int current = limit;
+        if (slow || poolWaitNanos > poolWaitThresholdNanos) {
+            int lowered = Math.max(minLimit, Math.min(current - 1, (int) (current * backoffRatio)));
+            if (lowered != current) {
+                limit = lowered;
+                latencyHoldOff = PERCENTILE_WINDOWS - 1;
+                log.warn("Write concurrency limit lowered from {} to {} (p99 {} ms, pool wait {} ms)", current, lowered,
+                        Math.round(p99Nanos / 1_000_000), Math.round(poolWaitNanos / 1_000_000));
+            }
+        } else if (limitReached && current < maxLimit && p99Nanos <= latencyThresholdNanos) {
+            limit = current + 1;
+            log.debug("Write concurrency limit raised to {}", current + 1);
+        }
+        limitReached = false;
+    }
+
+    private double p99Nanos() {
+        for (ValueAtPercentile value : latency.takeSnapshot().percentileValues()) {
+            if (value.percentile() == 0.99) {
+                return value.value(TimeUnit.NANOSECONDS);
+            }
+        }
+        return 0;
+    }
+
+    //Średni czas oczekiwania na połączenie od poprzedniej korekty - najgorsza z pul (baza główna, repliki, shardy)
+    private double poolWaitSinceLastAdjustment() {
+        double worst = 0;
+        for (Timer acquire : meterRegistry.find("hikaricp.connections.acquire").timers()) {
+            double count = acquire.count();
+            double total = acquire.totalTime(TimeUnit.NANOSECONDS);
+            double[] previous = previousPoolWaits.put(acquire.getId(), new double[]{count, total});
+            if (previous != null && count > previous[0]) {
+                worst = Math.max(worst, (total - previous[1]) / (count - previous[0]));
+            }
+        }
+        return worst;
+    }
+}
@@ -0,0 +1,64 @@
+package com.task.config.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.task.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/// Limit zapisów kampanii na sprzedawcę: kubełek żetonów z rate żetonami na sekundę i pojemnością burst.
+/// Kubełki nieużywane dłużej, niż trwa ich napełnienie, są usuwane - nowy kubełek jest pełny, więc to nic nie zmienia.
+@Component
+public class SellerRateLimiter {
+
+    private final boolean enabled;
+    private final long nanosPerToken;
+    private final int burst;
+    private final Cache<Long, TokenBucket> buckets;
+    private final Counter rejected;
+
+    public SellerRateLimiter(MeterRegistry meterRegistry,
+                             @Value("${ratelimit.enabled:true}") boolean enabled,
+                             @Value("${ratelimit.seller.rate:20}") double rate,
+                             @Value("${ratelimit.seller.burst:40}") int burst) {
+        this.enabled = enabled;
+        this.nanosPerToken = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        this.burst = burst;
+        Duration refill = Duration.ofNanos(nanosPerToken * burst);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(refill.compareTo(Duration.ofMinutes(1)) > 0 ? refill : Duration.ofMinutes(1))
+                .build();
+        Gauge.builder("ratelimit.seller.buckets", buckets, Cache::estimatedSize)
+                .description("Sellers with an active token bucket")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("ratelimit.rejected")
+                .tag("reason", "seller")
+                .description("Write requests rejected because the seller exceeded its rate")
+                .register(meterRegistry);
+    }
+
+    /// Pobiera żetony za zapis o podanym koszcie (np. liczbie pozycji paczki) albo rzuca RateLimitExceededException
+    /// z czasem, po którym zapis się zmieści. Paczka większa niż burst przechodzi tylko przy pełnym kubełku i blokuje
+    /// kolejne zapisy sprzedawcy na koszt / rate - sprzedawca nie zapisze szybciej niż rate pozycji na sekundę.
+    public void acquire(long sellerId, int cost) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(sellerId, id -> new TokenBucket(nanosPerToken, burst, now));
+        long waitNanos = bucket.tryAcquire(Math.max(1, cost), now);
+        if (waitNanos > 0) {
+            rejected.increment();
+            long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            throw new RateLimitExceededException("Przekroczono limit zapisów dla sprzedawcy o ID " + sellerId +
+                    ", spróbuj ponownie za " + retryAfter + " s.", retryAfter);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.task.config.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/// Kubełek żetonów bez blokad w wariancie GCRA: cały stan to jeden long - chwila (System.nanoTime), w której kubełek
+/// byłby znów pełny. Pobranie n żetonów przesuwa ją o n odstępów między żetonami i udaje się, gdy nie wybiega ona
+/// w przyszłość dalej niż pojemność kubełka. Pobranie większe od pojemności udaje się tylko przy pełnym kubełku
+/// i zadłuża go - kolejne pobrania czekają, aż dług się spłaci. Stan zmienia jeden compareAndSet, odrzucenie niczego
+/// nie zapisuje.
+final class TokenBucket {
+
+    private final long nanosPerToken;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    TokenBucket(long nanosPerToken, int capacity, long now) {
+        this.nanosPerToken = nanosPerToken;
+        this.capacityNanos = nanosPerToken * capacity;
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /// Zwraca 0, gdy żetony zostały pobrane, albo czas w ns, po którym pobranie tylu żetonów by się udało.
+    long tryAcquire(int tokens, long now) {
+        long cost = nanosPerToken * tokens;
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + cost;
+            long wait = next - now - Math.max(capacityNanos, cost);
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
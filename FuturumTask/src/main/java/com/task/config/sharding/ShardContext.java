@@ -0,0 +1,33 @@
+package com.task.config.sharding;
+
+/// Shard, do którego trafiają zapytania bieżącego wątku. Ustawiany przez ShardRouter, czytany przez
+/// ShardRoutingDataSource (wybór puli połączeń) i ShardedSequenceGenerator (id nowych kampanii).
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+    private static volatile int shardCount = 1;
+
+    private ShardContext() {
+    }
+
+    public static int shardCount() {
+        return shardCount;
+    }
+
+    static void configure(int count) {
+        shardCount = count;
+    }
+
+    /// Shard bieżącego wątku albo null, gdy żaden nie został wskazany.
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    static void set(Integer shard) {
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.task.config.sharding;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/// Kieruje operacje serwisów do shardów. Sprzedawca i wszystkie jego kampanie leżą na jednym shardzie
+/// (id mod liczba shardów), więc każdy zapis - także obciążenie salda przy tworzeniu kampanii - to transakcja
+/// na jednym shardzie. Bez shardów (sharding.urls puste) wszystkie metody po prostu wykonują przekazaną operację
+/// w bieżącym wątku i transakcji.
+@Component
+public class ShardRouter {
+
+    /// Shard, na którym leżą tabele niezwiązane ze sprzedawcą (statystyki reklam).
+    public static final int HOME_SHARD = 0;
+
+    private final int shardCount;
+    private final TransactionTemplate readTemplate;
+    private final TransactionTemplate writeTemplate;
+    private final ExecutorService scatterExecutor;
+
+    public ShardRouter(PlatformTransactionManager transactionManager,
+                       @Value("${sharding.urls:}") List<String> urls) {
+        this.shardCount = Math.max(1, urls.size());
+        ShardContext.configure(shardCount);
+        //Przy shardach każda operacja ma własną transakcję na swoim shardzie, niezależną od transakcji wywołującego
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.writeTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTemplate = new TransactionTemplate(transactionManager, writeTemplate);
+        this.readTemplate.setReadOnly(true);
+        this.scatterExecutor = isSharded() ? Executors.newVirtualThreadPerTaskExecutor() : null;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    public int shardOfSeller(long sellerId) {
+        return Math.floorMod(sellerId, shardCount);
+    }
+
+    public int shardOfCampaign(long campaignId) {
+        return Math.floorMod(campaignId, shardCount);
+    }
+
+    /// Przypisuje bieżącą transakcję do shardu aż do jej zakończenia. Wywoływane na początku metody
+    /// transakcyjnej, przed pierwszym zapytaniem (połączenie jest pobierane leniwie, przy pierwszym zapytaniu).
+    public void bind(int shard) {
+        if (!isSharded()) {
+            return;
+        }
+        Integer bound = ShardContext.current();
+        if (bound != null) {
+            if (bound != shard) {
+                throw new IllegalStateException("Transaction is bound to shard " + bound + ", cannot use shard " + shard);
+            }
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Binding to a shard requires an active transaction");
+        }
+        ShardContext.set(shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                ShardContext.set(null);
+            }
+        });
+    }
+
+    /// Wykonuje operację na jednym shardzie we własnej transakcji.
+    public <T> T callOnShard(int shard, boolean readOnly, Supplier<T> action) {
+        if (!isSharded()) {
+            return action.get();
+        }
+        Integer previous = ShardContext.current();
+        ShardContext.set(shard);
+        try {
+            return (readOnly ? readTemplate : writeTemplate).execute(status -> action.get());
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    public void runOnShard(int shard, boolean readOnly, Runnable action) {
+        callOnShard(shard, readOnly, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /// Scatter: operacja równolegle na wszystkich shardach (wątki wirtualne), wyniki w kolejności shardów.
+    public <T> List<T> scatter(boolean readOnly, IntFunction<T> action) {
+        if (!isSharded()) {
+            return List.of(action.apply(HOME_SHARD));
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> callOnShard(target, readOnly, () -> action.apply(target)), scatterExecutor));
+        }
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /// Operacja na kolejnych shardach w bieżącym wątku - dla odczytów strumieniowych i ładowania struktur,
+    /// które nie są bezpieczne wątkowo.
+    public void forEachShard(boolean readOnly, IntConsumer action) {
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            runOnShard(target, readOnly, () -> action.accept(target));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.task.config.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/// Wybiera pulę połączeń shardu wskazanego w ShardContext. Bez wskazanego shardu połączenie pochodzi
+/// z shardu domowego (ShardRouter.HOME_SHARD) - tak łączy się Hibernate przy starcie i tam leżą tabele
+/// niezwiązane ze sprzedawcą (ad_stats_minute).
+@Slf4j
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private final List<HikariDataSource> shards;
+
+    public ShardRoutingDataSource(List<HikariDataSource> shards) {
+        this.shards = shards;
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(ShardRouter.HOME_SHARD));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+    @Override
+    public void destroy() {
+        for (HikariDataSource shard : shards) {
+            log.info("Closing shard pool {}", shard.getPoolName());
+            shard.close();
+        }
+    }
+}
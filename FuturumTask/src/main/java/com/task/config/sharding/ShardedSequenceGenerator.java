@@ -0,0 +1,62 @@
+package com.task.config.sharding;
+
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/// Generator id z sekwencji, który przy shardach koduje numer shardu w id: id = wartość * liczba shardów + shard,
+/// więc shard kampanii to id mod liczba shardów, a id są unikalne we wszystkich shardach. Każdy shard ma własną
+/// sekwencję, dlatego pule wartości (increment_size) są trzymane osobno dla każdego shardu - wspólny optymalizator
+/// Hibernate rozdawałby wartości z sekwencji jednego shardu kampaniom zapisywanym w innym.
+/// Bez shardów działa jak zwykły generator sekwencji.
+public class ShardedSequenceGenerator extends SequenceStyleGenerator {
+
+    private final ShardedSequence config;
+    private final Map<Integer, ValueBlock> blocks = new ConcurrentHashMap<>();
+
+    public ShardedSequenceGenerator(ShardedSequence config) {
+        this.config = config;
+    }
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+        parameters.put(SEQUENCE_PARAM, config.sequenceName());
+        parameters.put(INCREMENT_PARAM, String.valueOf(config.allocationSize()));
+        super.configure(type, parameters, serviceRegistry);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        int shardCount = ShardContext.shardCount();
+        if (shardCount == 1) {
+            return super.generate(session, object);
+        }
+        Integer shard = ShardContext.current();
+        if (shard == null) {
+            throw new HibernateException("Cannot generate a sharded id outside of a shard-bound transaction");
+        }
+        ValueBlock block = blocks.computeIfAbsent(shard, key -> new ValueBlock());
+        long value;
+        synchronized (block) {
+            if (block.next > block.last) {
+                //Sekwencja zwraca początek kolejnej puli (START WITH 1 INCREMENT BY increment_size)
+                long start = getDatabaseStructure().buildCallback(session).getNextValue().makeValue().longValue();
+                block.next = start;
+                block.last = start + getDatabaseStructure().getIncrementSize() - 1;
+            }
+            value = block.next++;
+        }
+        return value * shardCount + shard;
+    }
+
+    private static final class ValueBlock {
+        private long next = 1;
+        private long last = 0;
+    }
+}
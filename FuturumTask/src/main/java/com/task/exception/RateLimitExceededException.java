@@ -0,0 +1,19 @@
+package com.task.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+//Odpowiedź 429 z nagłówkiem Retry-After buduje GlobalExceptionHandler. Bez stosu wywołań - odrzucenie pod
+//przeciążeniem ma kosztować jak najmniej
+@Getter
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String message, long retryAfterSeconds) {
+        super(message, null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,64 @@
+-- Schemat odpowiadający encjom JPA; przy profilach z Flyway Hibernate tylko go weryfikuje (ddl-auto=validate).
+-- Składnia wspólna dla PostgreSQL i H2 w trybie PostgreSQL.
+
+CREATE TABLE sellers (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name            VARCHAR(255)   NOT NULL,
+    emerald_balance NUMERIC(19, 2) NOT NULL,
+    CONSTRAINT uk_sellers_name UNIQUE (name)
+);
+
+-- Krok 50 = allocationSize w encji Campaign (pula id po stronie Hibernate)
+CREATE SEQUENCE campaigns_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE campaigns (
+    id            BIGINT         NOT NULL PRIMARY KEY,
+    campaign_name VARCHAR(255)   NOT NULL,
+    keywords      VARCHAR(255)   NOT NULL,
+    bid_amount    NUMERIC(38, 2) NOT NULL,
+    campaign_fund NUMERIC(38, 2) NOT NULL,
+    spent_amount  NUMERIC(38, 2) NOT NULL DEFAULT 0,
+    status        VARCHAR(255)   NOT NULL CHECK (status IN ('ON', 'OFF')),
+    town          VARCHAR(255),
+    radius        INTEGER        NOT NULL CHECK (radius >= 1),
+    version       BIGINT,
+    seller_id     BIGINT         NOT NULL,
+    CONSTRAINT fk_campaigns_seller FOREIGN KEY (seller_id) REFERENCES sellers (id)
+);
+
+CREATE TABLE campaign_keywords (
+    campaign_id BIGINT       NOT NULL,
+    keyword     VARCHAR(255) NOT NULL,
+    PRIMARY KEY (campaign_id, keyword),
+    CONSTRAINT fk_campaign_keywords_campaign FOREIGN KEY (campaign_id) REFERENCES campaigns (id)
+);
+
+CREATE TABLE balance_transactions (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    seller_id     BIGINT                   NOT NULL,
+    campaign_id   BIGINT,
+    type          VARCHAR(255)             NOT NULL CHECK (type IN ('CAMPAIGN_CREATED', 'CAMPAIGN_FUND_INCREASED',
+                                                                    'CAMPAIGN_FUND_DECREASED', 'CAMPAIGN_DELETED',
+                                                                    'CAMPAIGN_BULK_CHANGE')),
+    amount        NUMERIC(19, 2)           NOT NULL,
+    balance_after NUMERIC(19, 2)           NOT NULL,
+    created_at    TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE TABLE ad_stats_minute (
+    campaign_id  BIGINT                      NOT NULL,
+    minute_start TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    town         VARCHAR(255)                NOT NULL,
+    seller_id    BIGINT                      NOT NULL,
+    impressions  BIGINT                      NOT NULL,
+    clicks       BIGINT                      NOT NULL,
+    spend        NUMERIC(19, 2)              NOT NULL,
+    PRIMARY KEY (campaign_id, minute_start, town)
+);
+
+CREATE TABLE idempotency_keys (
+    idempotency_key VARCHAR(255)                NOT NULL PRIMARY KEY,
+    request_hash    VARCHAR(64)                 NOT NULL,
+    response_body   VARCHAR(4000)               NOT NULL,
+    created_at      TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,22 @@
+-- Indeksy pod zapytania aplikacji. Klucz kończy się kolumną id, bo listy są stronicowane po id (keyset):
+-- WHERE <filtr> AND id > :after ORDER BY id LIMIT n czyta tylko jedną stronę indeksu.
+-- PostgreSQL nie indeksuje kluczy obcych automatycznie - idx_campaigns_seller obsługuje też złączenia i FK.
+
+-- Lista kampanii z filtrami sellerId / status / town, wyłączanie wyczerpanych kampanii (status, id)
+CREATE INDEX idx_campaigns_seller ON campaigns (seller_id, id);
+CREATE INDEX idx_campaigns_status ON campaigns (status, id);
+CREATE INDEX idx_campaigns_town ON campaigns (town, id);
+
+-- Wyszukiwanie kampanii po słowie kluczowym
+CREATE INDEX idx_campaign_keywords_keyword ON campaign_keywords (keyword, campaign_id);
+
+-- Historia salda sprzedawcy (najnowsze pierwsze)
+CREATE INDEX idx_balance_transactions_seller ON balance_transactions (seller_id, id);
+
+-- Statystyki reklam: seria kampanii, sumy sprzedawcy, zakres czasu
+CREATE INDEX idx_ad_stats_minute_campaign ON ad_stats_minute (campaign_id, minute_start);
+CREATE INDEX idx_ad_stats_minute_seller ON ad_stats_minute (seller_id, minute_start);
+CREATE INDEX idx_ad_stats_minute_minute ON ad_stats_minute (minute_start);
+
+-- Usuwanie wygasłych kluczy idempotencji
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys (created_at);
@@ -0,0 +1,8 @@
+-- Sprzedawcy demonstracyjni (jak w data.sql) - tylko gdy lokalizacja classpath:db/seed jest włączona.
+-- Powtarzalna migracja: dodaje brakujących, nie nadpisuje sald istniejących.
+INSERT INTO sellers (name, emerald_balance)
+SELECT 'x-kom', 15000.00 WHERE NOT EXISTS (SELECT 1 FROM sellers WHERE name = 'x-kom');
+INSERT INTO sellers (name, emerald_balance)
+SELECT 'morele.net', 10000.00 WHERE NOT EXISTS (SELECT 1 FROM sellers WHERE name = 'morele.net');
+INSERT INTO sellers (name, emerald_balance)
+SELECT 'krsystem', 12500.00 WHERE NOT EXISTS (SELECT 1 FROM sellers WHERE name = 'krsystem');
@@ -0,0 +1,8 @@
+-- Sprzedawcy demonstracyjni dla shardów: każdy trafia tylko na swój shard (id mod liczba shardów),
+-- dlatego id są podane jawnie, a nie nadawane osobno przez każdy shard.
+INSERT INTO sellers (id, name, emerald_balance)
+SELECT v.id, v.name, v.emerald_balance
+FROM (VALUES (1, 'x-kom', 15000.00), (2, 'morele.net', 10000.00), (3, 'krsystem', 12500.00))
+         AS v (id, name, emerald_balance)
+WHERE MOD(v.id, ${shardCount}) = ${shardIndex}
+  AND NOT EXISTS (SELECT 1 FROM sellers s WHERE s.id = v.id);
@@ -0,0 +1,150 @@
+package com.task.campaign.service;
+
+import com.task.campaign.dto.CampaignFilterDto;
+import com.task.campaign.dto.CampaignRequestDto;
+import com.task.campaign.dto.CampaignResponseDto;
+import com.task.campaign.entity.BalanceTransaction;
+import com.task.campaign.entity.Seller;
+import com.task.campaign.enums.CampaignStatus;
+import com.task.campaign.repository.BalanceTransactionRepository;
+import com.task.campaign.repository.SellerRepository;
+import com.task.exception.InsufficientFundsException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/// 64 wątki tworzą i zmieniają kampanie jednego sprzedawcy naraz. Saldo końcowe musi się zgadzać co do grosza
+/// z sumą funduszy kampanii, a wpisy historii operacji muszą się sumować do tego samego salda.
+@SpringBootTest(properties = "ratelimit.enabled=false")
+class BalanceLedgerStressTest {
+
+    private static final int THREADS = 64;
+    private static final int UPDATES_PER_THREAD = 5;
+
+    @Autowired
+    private CampaignService campaignService;
+
+    @Autowired
+    private SellerRepository sellerRepository;
+
+    @Autowired
+    private BalanceTransactionRepository balanceTransactionRepository;
+
+    @Test
+    void concurrentCreatesAndUpdatesKeepBalanceExact() throws Exception {
+        BigDecimal initialBalance = new BigDecimal("100000.00");
+        Seller seller = sellerRepository.save(new Seller(null, "stress-exact", initialBalance));
+
+        //Każdy wątek tworzy kampanię za 100, potem na zmianę podnosi fundusz do 150 i obniża do 50 - kończy na 150
+        List<BigDecimal> finalFunds = runConcurrently(thread -> {
+            CampaignResponseDto campaign = campaignService.createCampaign(request(seller, thread, "100.00"));
+            BigDecimal fund = campaign.getCampaignFund();
+            for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                fund = campaignService.updateCampaign(campaign.getId(),
+                        request(seller, thread, i % 2 == 0 ? "150.00" : "50.00")).getCampaignFund();
+            }
+            return fund;
+        });
+
+        assertThat(finalFunds).hasSize(THREADS).allMatch(fund -> fund.compareTo(new BigDecimal("150.00")) == 0);
+        BigDecimal expected = initialBalance.subtract(new BigDecimal("150.00").multiply(BigDecimal.valueOf(THREADS)));
+        assertThat(balanceOf(seller)).isEqualByComparingTo(expected);
+        assertLedgerAddsUpTo(seller, initialBalance, THREADS * (1 + UPDATES_PER_THREAD));
+    }
+
+    @Test
+    void concurrentDebitsNeverOverdraw() throws Exception {
+        BigDecimal initialBalance = new BigDecimal("1000.00");
+        Seller seller = sellerRepository.save(new Seller(null, "stress-overdraw", initialBalance));
+        AtomicInteger rejected = new AtomicInteger();
+
+        //Środki wystarczają na 10 z 64 kampanii; część wątków od razu zwalnia miejsce, zmniejszając fundusz
+        List<BigDecimal> finalFunds = runConcurrently(thread -> {
+            try {
+                CampaignResponseDto campaign = campaignService.createCampaign(request(seller, thread, "100.00"));
+                if (thread % 4 == 0) {
+                    return campaignService.updateCampaign(campaign.getId(), request(seller, thread, "40.00"))
+                            .getCampaignFund();
+                }
+                return campaign.getCampaignFund();
+            } catch (InsufficientFundsException e) {
+                rejected.incrementAndGet();
+                return BigDecimal.ZERO;
+            }
+        });
+
+        BigDecimal committed = finalFunds.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal balance = balanceOf(seller);
+        assertThat(rejected.get()).isPositive();
+        assertThat(balance).isGreaterThanOrEqualTo(BigDecimal.ZERO);
+        assertThat(balance).isEqualByComparingTo(initialBalance.subtract(committed));
+        CampaignFilterDto filter = new CampaignFilterDto(null, null, seller.getId(), null, null);
+        assertThat(campaignService.getAllCampaigns(filter, null, THREADS).getItems().stream()
+                .map(CampaignResponseDto::getCampaignFund)
+                .reduce(BigDecimal.ZERO, BigDecimal::add))
+                .isEqualByComparingTo(committed);
+        assertLedgerAddsUpTo(seller, initialBalance, -1);
+    }
+
+    private List<BigDecimal> runConcurrently(ThreadTask task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BigDecimal>> results = new ArrayList<>(THREADS);
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int thread = 0; thread < THREADS; thread++) {
+                int number = thread;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return task.run(number);
+                }));
+            }
+            start.countDown();
+            List<BigDecimal> values = new ArrayList<>(THREADS);
+            for (Future<BigDecimal> result : results) {
+                values.add(result.get());
+            }
+            return values;
+        }
+    }
+
+    //expectedEntries < 0 - liczba wpisów nie jest sprawdzana
+    private void assertLedgerAddsUpTo(Seller seller, BigDecimal initialBalance, int expectedEntries) {
+        List<BalanceTransaction> history = balanceTransactionRepository.findHistory(seller.getId(), null,
+                Limit.unlimited());
+        if (expectedEntries >= 0) {
+            assertThat(history).hasSize(expectedEntries);
+        }
+        BigDecimal balance = balanceOf(seller);
+        BigDecimal sum = history.stream().map(BalanceTransaction::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertThat(initialBalance.add(sum)).isEqualByComparingTo(balance);
+        //Najnowszy wpis zapisał saldo po ostatniej operacji
+        if (!history.isEmpty()) {
+            assertThat(history.get(0).getBalanceAfter()).isEqualByComparingTo(balance);
+        }
+    }
+
+    private BigDecimal balanceOf(Seller seller) {
+        return sellerRepository.findById(seller.getId()).orElseThrow().getEmeraldBalance();
+    }
+
+    private static CampaignRequestDto request(Seller seller, int thread, String fund) {
+        return new CampaignRequestDto("Stress " + seller.getName() + " " + thread, "stress", new BigDecimal("1.00"),
+                new BigDecimal(fund), CampaignStatus.ON, "Kraków", 10, seller.getId());
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        BigDecimal run(int thread) throws Exception;
+    }
+}
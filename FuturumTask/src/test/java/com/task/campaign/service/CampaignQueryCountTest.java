@@ -0,0 +1,113 @@
+package com.task.campaign.service;
+
+import com.task.campaign.dto.CampaignFilterDto;
+import com.task.campaign.dto.CampaignPageDto;
+import com.task.campaign.dto.CampaignRequestDto;
+import com.task.campaign.entity.Seller;
+import com.task.campaign.enums.CampaignStatus;
+import com.task.campaign.repository.SellerRepository;
+import com.task.config.CacheConfig;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/// Odczyty kampanii nie mogą dociągać sprzedawcy osobnym zapytaniem dla każdego wiersza: liczba zapytań
+/// (Hibernate Statistics) dla listy, eksportu i pojedynczej kampanii nie może rosnąć z liczbą kampanii.
+/// Pacing jest wyłączony, żeby zadania w tle nie dokładały zapytań w trakcie pomiaru.
+@SpringBootTest(properties = {"ratelimit.enabled=false", "ads.pacing.enabled=false"})
+class CampaignQueryCountTest {
+
+    //Lista i eksport to jedno zapytanie o kampanie razem ze sprzedawcą; kampania i sprzedawca przy odczycie po id
+    private static final long LIST_STATEMENTS = 1;
+    private static final long EXPORT_STATEMENTS = 1;
+    private static final long BY_ID_STATEMENTS = 2;
+
+    @Autowired
+    private CampaignService campaignService;
+
+    @Autowired
+    private SellerRepository sellerRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void readsIssueConstantNumberOfStatements() throws IOException {
+        for (int campaigns : new int[]{5, 100}) {
+            Seller seller = seedSeller("query-count-" + campaigns, campaigns);
+            CampaignFilterDto filter = new CampaignFilterDto(null, null, seller.getId(), null, null);
+
+            long listed = countStatements(() -> {
+                CampaignPageDto page = campaignService.getAllCampaigns(filter, null, CampaignService.MAX_PAGE_SIZE);
+                assertThat(page.getItems()).hasSize(campaigns)
+                        .allMatch(campaign -> seller.getName().equals(campaign.getSellerName()));
+            });
+            assertThat(listed).as("getAllCampaigns for %d campaigns", campaigns).isEqualTo(LIST_STATEMENTS);
+
+            ByteArrayOutputStream exported = new ByteArrayOutputStream();
+            long export = countStatements(() -> campaignService.exportCampaigns(filter, exported));
+            assertThat(exported.toString(StandardCharsets.UTF_8).lines()).hasSize(campaigns);
+            assertThat(export).as("exportCampaigns for %d campaigns", campaigns).isEqualTo(EXPORT_STATEMENTS);
+
+            //Bez cache: kampania i sprzedawca po jednym zapytaniu, niezależnie od liczby kampanii sprzedawcy
+            clearCaches();
+            long id = campaignService.getAllCampaigns(filter, null, 1).getItems().get(0).getId();
+            long byId = countStatements(() -> assertThat(campaignService.getCampaignById(id).getSellerName())
+                    .isEqualTo(seller.getName()));
+            assertThat(byId).as("getCampaignById with %d campaigns", campaigns).isEqualTo(BY_ID_STATEMENTS);
+            assertThat(countStatements(() -> campaignService.getCampaignById(id))).isZero();
+        }
+    }
+
+    private Seller seedSeller(String name, int campaigns) {
+        Seller seller = sellerRepository.save(new Seller(null, name, new BigDecimal("1000000.00")));
+        for (int i = 0; i < campaigns; i++) {
+            campaignService.createCampaign(new CampaignRequestDto("Campaign " + name + " " + i, "count",
+                    new BigDecimal("1.00"), new BigDecimal("10.00"), CampaignStatus.ON, "Kraków", 10,
+                    seller.getId()));
+        }
+        return seller;
+    }
+
+    private void clearCaches() {
+        Stream.of(CacheConfig.CAMPAIGNS, CacheConfig.SELLERS).map(cacheManager::getCache).forEach(cache -> {
+            if (cache != null) {
+                cache.clear();
+            }
+        });
+    }
+
+    private long countStatements(Read read) throws IOException {
+        long before = statistics.getPrepareStatementCount();
+        read.run();
+        return statistics.getPrepareStatementCount() - before;
+    }
+
+    @FunctionalInterface
+    private interface Read {
+        void run() throws IOException;
+    }
+}
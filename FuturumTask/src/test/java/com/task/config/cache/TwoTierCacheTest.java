@@ -0,0 +1,132 @@
+package com.task.config.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/// Odczyt, który minął się z cache przed unieważnieniem po commicie, nie może po nim wstawić stanu sprzed zmiany -
+/// ani na swoim węźle, ani w poziomie zdalnym. Unieważnienie z jednego węzła usuwa też lokalne kopie pozostałych.
+class TwoTierCacheTest {
+
+    private static final String NAME = "campaigns";
+    private static final Long KEY = 1L;
+
+    @Test
+    void loadStartedBeforeEvictionIsNotCached() throws Exception {
+        TwoTierCache cache = new TwoTierCache(caffeine(), null);
+
+        //Odczyt: chybienie i wartość z bazy sprzed zmiany
+        assertThat(cache.get(KEY)).isNull();
+        String loaded = "v1";
+        //Zapis w innym wątku: commit v2 i unieważnienie
+        runInOtherThread(() -> cache.evict(KEY));
+        cache.put(KEY, loaded);
+
+        assertThat(cache.get(KEY)).isNull();
+        cache.put(KEY, "v2");
+        assertThat(cache.get(KEY, String.class)).isEqualTo("v2");
+    }
+
+    @Test
+    void loadStartedBeforeClearIsNotCached() throws Exception {
+        TwoTierCache cache = new TwoTierCache(caffeine(), null);
+
+        assertThat(cache.get(KEY)).isNull();
+        runInOtherThread(cache::clear);
+        cache.put(KEY, "v1");
+
+        assertThat(cache.get(KEY)).isNull();
+    }
+
+    @Test
+    void evictionReachesLocalTierOfOtherNodes() {
+        RemoteCacheClient remote = new LocalRemoteCacheClient(Duration.ofMinutes(5));
+        TwoTierCache first = new TwoTierCache(caffeine(), remote);
+        TwoTierCache second = new TwoTierCache(caffeine(), remote);
+
+        assertThat(first.get(KEY)).isNull();
+        first.put(KEY, "v1");
+        //Drugi węzeł bierze wartość z poziomu zdalnego i trzyma ją lokalnie
+        assertThat(second.get(KEY, String.class)).isEqualTo("v1");
+
+        first.evict(KEY);
+
+        assertThat(second.getLocal().get(KEY)).isNull();
+        assertThat(second.get(KEY)).isNull();
+        assertThat(remote.get(NAME, KEY)).isNull();
+    }
+
+    @Test
+    void loadOnOtherNodeStartedBeforeEvictionIsNotCached() throws Exception {
+        RemoteCacheClient remote = new LocalRemoteCacheClient(Duration.ofMinutes(5));
+        TwoTierCache reader = new TwoTierCache(caffeine(), remote);
+        TwoTierCache writer = new TwoTierCache(caffeine(), remote);
+
+        assertThat(reader.get(KEY)).isNull();
+        runInOtherThread(() -> writer.evict(KEY));
+        reader.put(KEY, "v1");
+
+        assertThat(reader.get(KEY)).isNull();
+        assertThat(writer.get(KEY)).isNull();
+        assertThat(remote.get(NAME, KEY)).isNull();
+    }
+
+    @Test
+    void concurrentReadersNeverLeaveStaleValueAfterLastEviction() throws Exception {
+        RemoteCacheClient remote = new LocalRemoteCacheClient(Duration.ofMinutes(5));
+        List<TwoTierCache> nodes = List.of(new TwoTierCache(caffeine(), remote), new TwoTierCache(caffeine(), remote));
+        AtomicLong database = new AtomicLong();
+        AtomicBoolean writing = new AtomicBoolean(true);
+
+        List<Future<?>> readers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                TwoTierCache node = nodes.get(i % nodes.size());
+                readers.add(executor.submit(() -> {
+                    while (writing.get()) {
+                        if (node.get(KEY) == null) {
+                            long loaded = database.get();
+                            Thread.yield();
+                            node.put(KEY, loaded);
+                        }
+                    }
+                }));
+            }
+            //Każdy zapis: commit w bazie, potem unieważnienie z jednego z węzłów
+            for (long version = 1; version <= 20_000; version++) {
+                database.set(version);
+                nodes.get((int) (version % nodes.size())).evict(KEY);
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        }
+
+        for (TwoTierCache node : nodes) {
+            Long cached = node.get(KEY, Long.class);
+            assertThat(cached == null || cached == database.get()).as("cached %s, database %s", cached, database.get())
+                    .isTrue();
+        }
+    }
+
+    private static CaffeineCache caffeine() {
+        return new CaffeineCache(NAME, Caffeine.newBuilder().maximumSize(100).build(), false);
+    }
+
+    private static void runInOtherThread(Runnable action) throws Exception {
+        Thread thread = Thread.ofPlatform().start(action);
+        thread.join();
+    }
+}
@@ -0,0 +1,143 @@
+package com.task.config.datasource;
+
+import com.task.campaign.dto.CampaignFilterDto;
+import com.task.campaign.dto.CampaignRequestDto;
+import com.task.campaign.entity.Seller;
+import com.task.campaign.enums.CampaignStatus;
+import com.task.campaign.repository.SellerRepository;
+import com.task.campaign.service.CampaignService;
+import com.task.campaign.service.ListVersionService;
+import com.task.campaign.service.SellerService;
+import com.task.config.CacheConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/// Profil replica: pula główna i dwie pule replik na tej samej bazie H2. Po zapisie sprzedawcy do bazy głównej
+/// trafiają tylko odczyty tego sprzedawcy i jego zmienionej kampanii (oraz lista sprzedawców z saldami), a odczyty
+/// innych sprzedawców dalej idą do replik. Listy z ETagiem czytają w oknie dowolnego zapisu z bazy głównej.
+/// Po upływie okna wszystko wraca do replik.
+@ActiveProfiles("replica")
+@SpringBootTest(properties = {"ratelimit.enabled=false", "ads.pacing.enabled=false",
+        "datasource.read-your-writes-window=1s"})
+class ReadYourWritesRoutingTest {
+
+    private static final String PRIMARY = "primary";
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaDataSource;
+
+    @Autowired
+    private CampaignService campaignService;
+
+    @Autowired
+    private SellerService sellerService;
+
+    @Autowired
+    private SellerRepository sellerRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ListVersionService listVersionService;
+
+    @Test
+    void windowCoversOnlyReadsOfTheWritingSeller() throws InterruptedException {
+        Seller writer = sellerRepository.save(new Seller(null, "ryw-writer", new BigDecimal("1000.00")));
+        Seller other = sellerRepository.save(new Seller(null, "ryw-other", new BigDecimal("1000.00")));
+        Long campaignId = campaignService.createCampaign(new CampaignRequestDto("Read your writes", "ryw",
+                new BigDecimal("1.00"), new BigDecimal("10.00"), CampaignStatus.ON, "Kraków", 10,
+                writer.getId())).getId();
+
+        assertThat(ReadScope.forSeller(writer.getId(), this::lookupKey)).isEqualTo(PRIMARY);
+        assertThat(ReadScope.forCampaign(campaignId, this::lookupKey)).isEqualTo(PRIMARY);
+        assertThat(ReadScope.forAllSellers(this::lookupKey)).isEqualTo(PRIMARY);
+        assertThat(ReadScope.forSeller(other.getId(), this::lookupKey)).isInstanceOf(Integer.class);
+        assertThat(lookupKey()).isInstanceOf(Integer.class);
+        //Zapisy i odczyty poza transakcją readOnly zawsze do bazy głównej
+        assertThat(replicaDataSource.determineCurrentLookupKey()).isEqualTo(PRIMARY);
+
+        //Te same decyzje przy odczytach przez serwisy (z pominięciem cache)
+        clearCaches();
+        assertThat(readsFromReplica(() -> sellerService.getSellerById(writer.getId()))).isFalse();
+        assertThat(readsFromReplica(() -> sellerService.getSellerById(other.getId()))).isTrue();
+        assertThat(readsFromReplica(() -> campaignService.getCampaignById(campaignId))).isFalse();
+        assertThat(readsFromReplica(() -> sellerService.getBalanceHistory(writer.getId(), null, 10))).isFalse();
+        assertThat(readsFromReplica(() -> sellerService.getBalanceHistory(other.getId(), null, 10))).isTrue();
+        assertThat(readsFromReplica(() -> campaignService.getAllCampaigns(
+                new CampaignFilterDto(null, null, other.getId(), null, null), null, 10))).isTrue();
+        assertThat(readsFromReplica(() -> campaignService.getAllCampaigns(
+                new CampaignFilterDto(null, null, null, null, null), null, 10))).isTrue();
+        //Listy z ETagiem - nowa wersja jest już widoczna, więc treść musi pochodzić z bazy głównej
+        assertThat(readsFromReplica(() -> ReadScope.forAllSellers(() -> campaignService.getAllCampaigns(
+                new CampaignFilterDto(null, null, null, null, null), null, 10)))).isFalse();
+        assertThat(readsFromReplica(() -> ReadScope.forAllSellers(() -> campaignService.getAllCampaigns(
+                new CampaignFilterDto(null, null, other.getId(), null, null), null, 10)))).isFalse();
+
+        Thread.sleep(1100);
+        clearCaches();
+        assertThat(readsFromReplica(() -> sellerService.getSellerById(writer.getId()))).isTrue();
+        assertThat(readsFromReplica(() -> campaignService.getCampaignById(campaignId))).isTrue();
+        assertThat(ReadScope.forAllSellers(this::lookupKey)).isInstanceOf(Integer.class);
+    }
+
+    @Test
+    void listVersionBumpWithoutEventsOpensWindowForListsOnly() throws InterruptedException {
+        //Okna poprzednich zapisów muszą się zamknąć
+        Thread.sleep(1100);
+        assertThat(ReadScope.forAllSellers(this::lookupKey)).isInstanceOf(Integer.class);
+
+        //Jak zapis wydatków silnika reklam
+        listVersionService.campaignsChanged();
+
+        assertThat(ReadScope.forAllSellers(this::lookupKey)).isEqualTo(PRIMARY);
+        assertThat(ReadScope.forSeller(1L, this::lookupKey)).isInstanceOf(Integer.class);
+        assertThat(lookupKey()).isInstanceOf(Integer.class);
+    }
+
+    private Object lookupKey() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> replicaDataSource.determineCurrentLookupKey());
+    }
+
+    private boolean readsFromReplica(Runnable read) {
+        long before = replicaAcquisitions();
+        read.run();
+        return replicaAcquisitions() > before;
+    }
+
+    private long replicaAcquisitions() {
+        return Stream.of("replica-0", "replica-1")
+                .map(pool -> meterRegistry.find("hikaricp.connections.acquire").tag("pool", pool).timer())
+                .mapToLong(timer -> timer == null ? 0 : timer.count())
+                .sum();
+    }
+
+    private void clearCaches() {
+        Stream.of(CacheConfig.SELLERS, CacheConfig.SELLER_LIST, CacheConfig.CAMPAIGNS)
+                .map(cacheManager::getCache)
+                .forEach(cache -> {
+                    if (cache != null) {
+                        cache.clear();
+                    }
+                });
+    }
+}
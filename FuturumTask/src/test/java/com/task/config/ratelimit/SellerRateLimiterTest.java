@@ -0,0 +1,43 @@
+package com.task.config.ratelimit;
+
+import com.task.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/// Paczka kosztuje tyle żetonów, ile ma pozycji - także ponad burst, więc zapis paczkami nie omija limitu rate.
+class SellerRateLimiterTest {
+
+    private static final long SELLER = 1L;
+
+    //20 zapisów na sekundę, zapas 40
+    private final SellerRateLimiter limiter = new SellerRateLimiter(new SimpleMeterRegistry(), true, 20, 40);
+
+    @Test
+    void batchLargerThanBurstIsChargedInFull() {
+        limiter.acquire(SELLER, 1000);
+
+        //Dług 960 żetonów spłaca się 48 s
+        assertThatThrownBy(() -> limiter.acquire(SELLER, 1))
+                .isInstanceOfSatisfying(RateLimitExceededException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isBetween(48L, 49L));
+    }
+
+    @Test
+    void batchLargerThanBurstNeedsFullBucket() {
+        limiter.acquire(SELLER, 1);
+
+        assertThatThrownBy(() -> limiter.acquire(SELLER, 1000))
+                .isInstanceOfSatisfying(RateLimitExceededException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(1L));
+    }
+
+    @Test
+    void otherSellersAreNotAffected() {
+        limiter.acquire(SELLER, 1000);
+
+        limiter.acquire(SELLER + 1, 40);
+    }
+}
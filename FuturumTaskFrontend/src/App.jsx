@@ -1,4 +1,4 @@
-import React, {useEffect, useState} from 'react';
+import React, {useEffect, useRef, useState} from 'react';
 import {Link, Route, Routes, useNavigate} from 'react-router-dom';
 import CampaignForm from './CampaignForm';
 import EditCampaignForm from './EditCampaignForm';
@@ -6,6 +6,49 @@ import './App.css';
 
 const API_CAMPAIGNS_URL = 'http://localhost:8080/api/campaigns';
 const API_SELLERS_URL = 'http://localhost:8080/api/sellers';
+const API_CHANGES_URL = 'http://localhost:8080/api/changes';
+const CAMPAIGNS_PAGE_SIZE = 500;
+
+const fetchAllCampaigns = async () => {
+    const allCampaigns = [];
+    let cursor = null;
+    do {
+        const url = cursor
+            ? `${API_CAMPAIGNS_URL}?limit=${CAMPAIGNS_PAGE_SIZE}&after=${cursor}`
+            : `${API_CAMPAIGNS_URL}?limit=${CAMPAIGNS_PAGE_SIZE}`;
+        const response = await fetch(url);
+        if (!response.ok) throw new Error(`Failed to fetch campaigns: ${response.status}`);
+        const page = await response.json();
+        allCampaigns.push(...page.items);
+        cursor = page.nextCursor;
+    } while (cursor);
+    return allCampaigns;
+};
+
+// Wstawia albo podmienia kampanię, zachowując kolejność po id (taką jak zwraca API)
+const upsertCampaign = (campaigns, campaign) => {
+    const index = campaigns.findIndex(existing => existing.id === campaign.id);
+    if (index >= 0) return campaigns.map(existing => existing.id === campaign.id ? campaign : existing);
+    const insertAt = campaigns.findIndex(existing => existing.id > campaign.id);
+    if (insertAt < 0) return [...campaigns, campaign];
+    return [...campaigns.slice(0, insertAt), campaign, ...campaigns.slice(insertAt)];
+};
+
+const applyCampaignChange = (campaigns, change) => {
+    switch (change.type) {
+        case 'CAMPAIGN_CREATED':
+        case 'CAMPAIGN_UPDATED':
+            return upsertCampaign(campaigns, change.campaign);
+        case 'CAMPAIGN_DELETED':
+            return campaigns.filter(campaign => campaign.id !== change.campaignId);
+        default:
+            return campaigns;
+    }
+};
+
+const applySellerChange = (sellers, change) => change.type === 'SELLER_BALANCE_CHANGED'
+    ? sellers.map(seller => seller.id === change.seller.id ? change.seller : seller)
+    : sellers;
 
 function CampaignListPage({campaigns, onDelete}) {
     if (!campaigns || campaigns.length === 0) return <p>No campaigns available. Add a new one.</p>;
@@ -75,35 +118,46 @@ function App() {
     const [selectedCampaignIdForEdit, setSelectedCampaignIdForEdit] = useState('');
     const navigate = useNavigate();
 
+    // Zmiany przychodzą strumieniem SSE po commicie; pełne listy pobieramy tylko po zdarzeniu "reset"
+    // (pierwsze połączenie albo zbyt długa przerwa). Zmiany, które przyjdą w trakcie pobierania, są
+    // nakładane na wynik po jego otrzymaniu.
+    const pendingChanges = useRef(null);
+
     useEffect(() => {
+        const applyChanges = (changes) => {
+            if (changes.length === 0) return;
+            setCampaigns(currentCampaigns => changes.reduce(applyCampaignChange, currentCampaigns));
+            setSellers(currentSellers => changes.reduce(applySellerChange, currentSellers));
+        };
+
         const fetchAllData = async () => {
+            pendingChanges.current = [];
             try {
-                const [campaignsResp, sellersResp] = await Promise.all([
-                    fetch(API_CAMPAIGNS_URL),
+                const [allCampaigns, sellersResp] = await Promise.all([
+                    fetchAllCampaigns(),
                     fetch(API_SELLERS_URL)
                 ]);
-                if (campaignsResp.ok) setCampaigns(await campaignsResp.json()); else setCampaigns([]);
+                setCampaigns(allCampaigns);
                 if (sellersResp.ok) setSellers(await sellersResp.json()); else setSellers([]);
             } catch (err) {
                 setCampaigns([]);
                 setSellers([]);
             }
+            const changes = pendingChanges.current;
+            pendingChanges.current = null;
+            applyChanges(changes);
         };
-        fetchAllData();
+
+        const changeFeed = new EventSource(API_CHANGES_URL);
+        changeFeed.addEventListener('reset', fetchAllData);
+        changeFeed.addEventListener('change', (event) => {
+            const change = JSON.parse(event.data);
+            if (pendingChanges.current) pendingChanges.current.push(change); else applyChanges([change]);
+        });
+        return () => changeFeed.close();
     }, []);
 
     const handleFormSuccess = () => {
-        const refreshData = async () => {
-
-            const [campaignsResp, sellersResp] = await Promise.all([
-                fetch(API_CAMPAIGNS_URL),
-                fetch(API_SELLERS_URL)
-            ]);
-            if (campaignsResp.ok) setCampaigns(await campaignsResp.json());
-            if (sellersResp.ok) setSellers(await sellersResp.json());
-
-        };
-        refreshData();
         navigate('/');
     };
 
@@ -114,8 +168,6 @@ function App() {
         const campaignNameToDelete = campaignToDelete ? campaignToDelete.campaignName : `ID: ${campaignIdToDelete}`;
         if (!window.confirm(`Are you sure you want to delete campaign: "${campaignNameToDelete}"?`)) return;
         await fetch(`${API_CAMPAIGNS_URL}/${campaignIdToDelete}`, {method: 'DELETE'});
-        handleFormSuccess();
-
     };
 
     return (
@@ -56,7 +56,7 @@ function CampaignForm({onCampaignCreated}) {
             setKeywordSuggestions([]);
             return;
         }
-        const response = await fetch(`${API_KEYWORDS_URL}?q=${encodeURIComponent(query)}`);
+        const response = await fetch(`${API_KEYWORDS_URL}?q=${encodeURIComponent(query)}&limit=10`);
         if (response.ok) {
             const data = await response.json();
             setKeywordSuggestions(data);
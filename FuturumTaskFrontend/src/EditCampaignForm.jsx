@@ -66,7 +66,7 @@ function EditCampaignForm({onCampaignUpdated}) {
             setKeywordSuggestions([]);
             return;
         }
-        const response = await fetch(`${API_KEYWORDS_URL}?q=${encodeURIComponent(query)}`);
+        const response = await fetch(`${API_KEYWORDS_URL}?q=${encodeURIComponent(query)}&limit=10`);
         if (response.ok) {
             setKeywordSuggestions(await response.json());
         } else {